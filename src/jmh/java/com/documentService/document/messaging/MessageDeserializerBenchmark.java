@@ -0,0 +1,82 @@
+package com.documentService.document.messaging;
+
+import com.documentService.document.messaging.codec.EventCodec;
+import com.documentService.document.messaging.codec.JacksonEventCodec;
+import com.documentService.document.messaging.events.*;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass deserialization of the event codecs with the previous implementation,
+ * which parsed every message into a tree to read the event type and then parsed it again into the event.
+ * The encode benchmarks compare the size independent cost of writing json and smile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageDeserializerBenchmark {
+
+    @Param({"64", "65536"})
+    private int bodyLength;
+
+    private ObjectMapper objectMapper;
+    private EventCodec jsonCodec;
+    private EventCodec smileCodec;
+    private CreateDocumentEvent event;
+    private String message;
+    private byte[] jsonPayload;
+    private byte[] smilePayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        // same setting as the object mapper configured by spring boot
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        jsonCodec = new JacksonEventCodec("json", objectMapper);
+        smileCodec = new JacksonEventCodec("smile", objectMapper.copyWith(new SmileFactory()));
+
+        event = new CreateDocumentEvent("Title", "b".repeat(bodyLength), 1L, Set.of(2L, 3L, 4L));
+        message = objectMapper.writeValueAsString(event);
+        jsonPayload = jsonCodec.encode(event);
+        smilePayload = smileCodec.encode(event);
+    }
+
+    @Benchmark
+    public AbstractDocumentServiceEvent singlePassJson() throws Exception {
+        return jsonCodec.decode(jsonPayload);
+    }
+
+    @Benchmark
+    public AbstractDocumentServiceEvent singlePassSmile() throws Exception {
+        return smileCodec.decode(smilePayload);
+    }
+
+    @Benchmark
+    public AbstractDocumentServiceEvent treeThenValue() throws Exception {
+        JsonNode parsedData = objectMapper.readTree(message);
+        DocumentServiceEventType type = DocumentServiceEventType.valueOf(parsedData.get("eventType").textValue());
+
+        return switch (type){
+            case CREATE_AUTHOR_EVENT -> objectMapper.readValue(message, CreateAuthorEvent.class);
+            case DELETE_AUTHOR_EVENT -> objectMapper.readValue(message, DeleteAuthorEvent.class);
+            case SERVICE_UPDATE_EVENT -> objectMapper.readValue(message, ServiceUpdateEvent.class);
+            case CREATE_DOCUMENT_EVENT -> objectMapper.readValue(message, CreateDocumentEvent.class);
+            case DELETE_DOCUMENT_EVENT -> objectMapper.readValue(message, DeleteDocumentEvent.class);
+        };
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return jsonCodec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() throws Exception {
+        return smileCodec.encode(event);
+    }
+}
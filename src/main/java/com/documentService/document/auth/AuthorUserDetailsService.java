@@ -0,0 +1,93 @@
+package com.documentService.document.auth;
+
+import com.documentService.document.model.Role;
+import com.documentService.document.repository.AuthorCredentials;
+import com.documentService.document.repository.AuthorRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Loads the user details of authors for authentication. Only username, password hash and role are
+ * read from the database, and the result is cached for a short time so that authenticating a
+ * request does not cost a database round trip. Entries are invalidated when an author changes.
+ */
+@Service
+public class AuthorUserDetailsService implements UserDetailsService {
+
+    private final AuthorRepository authorRepository;
+    private final Cache<String, CachedCredentials> cache;
+
+    public AuthorUserDetailsService(AuthorRepository authorRepository,
+                                    @Value("${auth.user-cache.max-size}") long maxSize,
+                                    @Value("${auth.user-cache.expire-after-write}") Duration expireAfterWrite) {
+        this.authorRepository = authorRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedCredentials credentials = cache.get(username, this::loadCredentials);
+        if (credentials == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+
+        // a new instance every time, spring security erases the password of the returned user after authentication
+        return User.withUsername(credentials.username())
+                .password(credentials.password())
+                .authorities(credentials.role().name())
+                .build();
+    }
+
+    /**
+     * Drops the cached details of the given author, whatever username it was cached under. Inside a
+     * transaction this happens once it commits, so a login running concurrently cannot cache the old
+     * details again after they were dropped.
+     */
+    public void invalidate(Long authorId) {
+        afterCommit(() -> cache.asMap().values().removeIf(credentials -> credentials.authorId().equals(authorId)));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private CachedCredentials loadCredentials(String username) {
+        return authorRepository.findCredentialsByUsername(username)
+                .map(CachedCredentials::of)
+                .orElse(null);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record CachedCredentials(Long authorId, String username, String password, Role role) {
+
+        static CachedCredentials of(AuthorCredentials credentials) {
+            return new CachedCredentials(credentials.getId(), credentials.getUsername(),
+                    credentials.getPassword(), credentials.getRole());
+        }
+    }
+}
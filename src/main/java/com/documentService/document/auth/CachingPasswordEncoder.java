@@ -0,0 +1,106 @@
+package com.documentService.document.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Password encoder remembering successful verifications for a short time, so a client sending the same
+ * basic auth credentials on every request pays for the slow hash comparison only once per TTL.
+ * <p>
+ * Raw passwords are never stored: the cache key is an HMAC of the raw password and the stored hash,
+ * computed with a random key that only lives in memory. Since the stored hash is part of the key,
+ * changing the password of an author automatically invalidates its entries.
+ * Failed verifications are not cached.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, Boolean> verified;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    private final Timer verificationTimer;
+    private final Counter cacheHits;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, long maxSize, Duration expireAfterWrite,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::createMac);
+
+        this.verificationTimer = Timer.builder("auth.password.verification")
+                .description("Time spent verifying passwords against their hash")
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("auth.password.verification.cache.hits")
+                .description("Password verifications answered from the cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        String cacheKey = cacheKey(rawPassword, encodedPassword);
+        if (verified.getIfPresent(cacheKey) != null) {
+            cacheHits.increment();
+            return true;
+        }
+
+        boolean matches = verificationTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        if (matches) {
+            verified.put(cacheKey, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String cacheKey(CharSequence rawPassword, String encodedPassword) {
+        Mac hmac = mac.get();
+        hmac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+        hmac.update((byte) 0);
+        hmac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hmac.doFinal());
+    }
+
+    private Mac createMac() {
+        try {
+            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+            hmac.init(key);
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("unable to initialise " + HMAC_ALGORITHM, e);
+        }
+    }
+}
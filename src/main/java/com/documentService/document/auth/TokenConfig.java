@@ -0,0 +1,50 @@
+package com.documentService.document.auth;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+
+/**
+ * This class configures the optional token authentication. Tokens are JWTs signed with HMAC using a
+ * locally configured key, so verifying them needs neither a database lookup nor a password hash.
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class TokenConfig {
+
+    public static final MacAlgorithm TOKEN_ALGORITHM = MacAlgorithm.HS256;
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    @Bean
+    public SecretKey tokenSecretKey(@Value("${auth.token.secret}") String secret) {
+        byte[] keyBytes = Base64.getDecoder().decode(secret);
+        if (keyBytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("auth.token.secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        return new SecretKeySpec(keyBytes, "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey tokenSecretKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenSecretKey));
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey tokenSecretKey) {
+        return NimbusJwtDecoder.withSecretKey(tokenSecretKey)
+                .macAlgorithm(TOKEN_ALGORITHM)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.documentService.document.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Issues self contained tokens for authenticated users. The token carries the username and the roles,
+ * so requests using it are authorised without loading the author.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class TokenService {
+
+    public static final String ISSUER = "document-service";
+    public static final String ROLES_CLAIM = "roles";
+
+    private final JwtEncoder jwtEncoder;
+    private final Duration ttl;
+
+    public TokenService(JwtEncoder jwtEncoder, @Value("${auth.token.ttl}") Duration ttl) {
+        this.jwtEncoder = jwtEncoder;
+        this.ttl = ttl;
+    }
+
+    public String issueToken(Authentication authentication) {
+        Instant now = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(ROLES_CLAIM, roles)
+                .build();
+
+        JwsHeader header = JwsHeader.with(TokenConfig.TOKEN_ALGORITHM).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+}
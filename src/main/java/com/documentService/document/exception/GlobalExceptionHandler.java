@@ -28,4 +28,11 @@ public class GlobalExceptionHandler {
         });
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(UnknownReferenceException.class)
+    public ResponseEntity<Map<String, String>> handleUnknownReferences(UnknownReferenceException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("referenceIds", ex.getMessage());
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
 }
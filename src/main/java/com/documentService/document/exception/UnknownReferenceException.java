@@ -0,0 +1,20 @@
+package com.documentService.document.exception;
+
+import java.util.Set;
+
+/**
+ * Thrown when a document is saved with referenceIds of documents which do not exist
+ */
+public class UnknownReferenceException extends IllegalArgumentException {
+
+    private final Set<Long> unknownIds;
+
+    public UnknownReferenceException(Set<Long> unknownIds) {
+        super("Referenced documents do not exist: " + unknownIds);
+        this.unknownIds = unknownIds;
+    }
+
+    public Set<Long> getUnknownIds() {
+        return unknownIds;
+    }
+}
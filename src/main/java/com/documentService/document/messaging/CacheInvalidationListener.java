@@ -0,0 +1,82 @@
+package com.documentService.document.messaging;
+
+import com.documentService.document.auth.AuthorUserDetailsService;
+import com.documentService.document.messaging.events.AbstractDocumentServiceEvent;
+import com.documentService.document.messaging.events.ServiceUpdateEvent;
+import com.documentService.document.service.DocumentCache;
+import com.documentService.document.service.DocumentReferenceGraph;
+import lombok.AllArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.documentService.document.messaging.KafkaEventPublisher.SERVICE_UPDATE_TOPIC;
+
+/**
+ * This class keeps the local caches and the reference graph consistent with writes done by other instances.
+ * Every instance consumes the service updates in its own consumer group, so each of them
+ * sees all updates, unlike the shared group used for processing events.
+ */
+@Service
+@AllArgsConstructor
+public class CacheInvalidationListener {
+
+    private MessageDeserializer messageDeserializer;
+    private DocumentCache documentCache;
+    private AuthorUserDetailsService userDetailsService;
+    private DocumentReferenceGraph documentReferenceGraph;
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    @KafkaListener(topics = SERVICE_UPDATE_TOPIC, groupId = "cache-invalidation-#{T(java.util.UUID).randomUUID()}")
+    public void listenServiceUpdates(ConsumerRecord<String, byte[]> record) {
+        AbstractDocumentServiceEvent event = messageDeserializer.parseEvent(record);
+        if (!(event instanceof ServiceUpdateEvent update) || update.getUpdateType() == null) {
+            return;
+        }
+
+        switch (update.getUpdateType()) {
+            case DOCUMENT_CREATED -> {
+                if (update.getDocumentId() != null) {
+                    updateReferenceGraph(update);
+                }
+            }
+            case DOCUMENT_UPDATED -> {
+                if (update.getDocumentId() != null) {
+                    documentCache.invalidate(update.getDocumentId());
+                    updateReferenceGraph(update);
+                    logger.debug("invalidated cached document {}", update.getDocumentId());
+                }
+            }
+            case DOCUMENT_DELETED -> {
+                if (update.getDocumentId() != null) {
+                    documentCache.invalidate(update.getDocumentId());
+                    documentReferenceGraph.remove(List.of(update.getDocumentId()));
+                    logger.debug("invalidated cached document {}", update.getDocumentId());
+                }
+            }
+            case AUTHOR_UPDATED -> userDetailsService.invalidate(update.getAuthorId());
+            case AUTHOR_DELETED -> {
+                userDetailsService.invalidate(update.getAuthorId());
+                documentCache.invalidateAll();
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Applies the references carried by the update, only updates without them need a database read
+     */
+    private void updateReferenceGraph(ServiceUpdateEvent update) {
+        if (update.getReferenceIds() != null) {
+            documentReferenceGraph.put(update.getDocumentId(), update.getReferenceIds());
+        } else {
+            documentReferenceGraph.reload(update.getDocumentId());
+        }
+    }
+}
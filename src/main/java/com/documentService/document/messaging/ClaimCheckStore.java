@@ -0,0 +1,144 @@
+package com.documentService.document.messaging;
+
+import com.documentService.document.messaging.events.CreateDocumentEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * This class implements the claim check for large document bodies. Bodies above the threshold are stored as
+ * files in the blob directory and the event only carries a reference and the checksum of the body, which keeps
+ * events below the broker message limit. The directory has to be shared by all instances producing and
+ * consuming document events.
+ * Stored bodies are removed once they are older than the retention, so redelivered events can still be read.
+ */
+@Component
+public class ClaimCheckStore {
+
+    private static final Pattern REFERENCE_PATTERN =
+            Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final boolean enabled;
+    private final int thresholdChars;
+    private final Path directory;
+    private final Duration retention;
+
+    private static final Logger logger = LoggerFactory.getLogger(ClaimCheckStore.class);
+
+    public ClaimCheckStore(@Value("${kafka.claim-check.enabled:false}") boolean enabled,
+                           @Value("${kafka.claim-check.threshold-chars:262144}") int thresholdChars,
+                           @Value("${kafka.claim-check.directory}") String directory,
+                           @Value("${kafka.claim-check.retention:7d}") Duration retention) {
+        this.enabled = enabled;
+        this.thresholdChars = thresholdChars;
+        this.directory = Path.of(directory);
+        this.retention = retention;
+    }
+
+    /**
+     * Moves the body of the event to the blob store if it is larger than the threshold
+     */
+    public void checkIn(CreateDocumentEvent event) throws IOException {
+        String body = event.getBody();
+        if (!enabled || body == null || body.length() <= thresholdChars) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        String reference = UUID.randomUUID().toString();
+        Path temp = Files.createTempFile(directory, reference, ".tmp");
+
+        MessageDigest digest = newDigest();
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)), digest), StandardCharsets.UTF_8)) {
+            writer.write(body);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, directory.resolve(reference), StandardCopyOption.ATOMIC_MOVE);
+
+        event.setBody(null);
+        event.setBodyRef(reference);
+        event.setBodyChecksum(HexFormat.of().formatHex(digest.digest()));
+        logger.debug("checked in body of {} chars as {}", body.length(), reference);
+    }
+
+    /**
+     * Returns the body of the event, reading it from the blob store if the event carries a reference.
+     * The body is streamed from the file and verified against the checksum of the event.
+     */
+    public String checkOut(CreateDocumentEvent event) throws IOException {
+        String reference = event.getBodyRef();
+        if (reference == null) {
+            return event.getBody();
+        }
+        if (!REFERENCE_PATTERN.matcher(reference).matches()) {
+            throw new IOException("invalid body reference " + reference);
+        }
+
+        MessageDigest digest = newDigest();
+        StringBuilder body = new StringBuilder();
+        try (Reader reader = new InputStreamReader(new DigestInputStream(
+                new BufferedInputStream(Files.newInputStream(directory.resolve(reference))), digest), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                body.append(buffer, 0, read);
+            }
+        }
+
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        if (!checksum.equals(event.getBodyChecksum())) {
+            throw new IOException("checksum mismatch for body " + reference);
+        }
+        return body.toString();
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.claim-check.cleanup-interval-ms:3600000}")
+    public void removeExpired() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        FileTime expiry = FileTime.from(Instant.now().minus(retention));
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(expiry) < 0) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    logger.warn("unable to remove expired body {}", file, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.error("unable to list bodies in {}", directory, e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
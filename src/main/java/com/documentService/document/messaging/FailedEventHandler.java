@@ -0,0 +1,213 @@
+package com.documentService.document.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.documentService.document.messaging.KafkaEventPublisher.*;
+
+/**
+ * This class takes care of events that could not be processed. Instead of blocking the partition, a failed
+ * event is sent to a retry topic and processed again once its back off has passed. Every attempt has its own
+ * retry topic with a fixed delay, growing exponentially from one attempt to the next. Events that can never
+ * succeed, cannot be parsed or are out of attempts are sent to the dead letter topic of their topic.
+ * Retried events may be processed after later events having the same key.
+ */
+@Component
+public class FailedEventHandler {
+
+    public static final String RETRY_ATTEMPT_HEADER = "retry-attempt";
+    public static final String RETRY_DUE_HEADER = "retry-due";
+    public static final String ORIGINAL_TOPIC_HEADER = "original-topic";
+    public static final String DLT_REASON_HEADER = "dlt-reason";
+    public static final String DLT_ORIGINAL_PARTITION_HEADER = "dlt-original-partition";
+    public static final String DLT_ORIGINAL_OFFSET_HEADER = "dlt-original-offset";
+    public static final String DLT_EXCEPTION_HEADER = "dlt-exception";
+    public static final String DLT_EXCEPTION_MESSAGE_HEADER = "dlt-exception-message";
+
+    private static final List<Class<? extends Exception>> NON_RETRYABLE_EXCEPTIONS = List.of(
+            IllegalArgumentException.class,
+            NoSuchElementException.class,
+            ClassCastException.class,
+            NullPointerException.class,
+            DataIntegrityViolationException.class);
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int attempts;
+    private final long delayMs;
+    private final double multiplier;
+    private final long maxDelayMs;
+    private final long sendTimeoutMs;
+
+    private static final Logger logger = LoggerFactory.getLogger(FailedEventHandler.class);
+
+    public FailedEventHandler(KafkaTemplate<String, byte[]> kafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${kafka.retry.attempts:3}") int attempts,
+                              @Value("${kafka.retry.delay-ms:1000}") long delayMs,
+                              @Value("${kafka.retry.multiplier:4}") double multiplier,
+                              @Value("${kafka.retry.max-delay-ms:60000}") long maxDelayMs,
+                              @Value("${kafka.retry.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.attempts = attempts;
+        this.delayMs = delayMs;
+        this.multiplier = multiplier;
+        this.maxDelayMs = maxDelayMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    public static String getRetryTopic(String topic, int attempt) {
+        return topic + "-retry-" + attempt;
+    }
+
+    public static String getDeadLetterTopic(String topic) {
+        return topic + "-dlt";
+    }
+
+    /**
+     * Retry topics of all event topics, consumed by the retry listener
+     */
+    public String[] getRetryTopics() {
+        List<String> topics = new ArrayList<>();
+        for (String topic : List.of(SERVICE_UPDATE_TOPIC, AUTHOR_TOPIC, DOCUMENT_TOPIC)) {
+            for (int attempt = 0; attempt < attempts; attempt++) {
+                topics.add(getRetryTopic(topic, attempt));
+            }
+        }
+        return topics.toArray(String[]::new);
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Time in epoch millis after which a record of a retry topic is due, 0 for records of the event topics
+     */
+    public long getDueTime(ConsumerRecord<String, byte[]> record) {
+        String due = getHeader(record, RETRY_DUE_HEADER);
+        return due == null ? 0 : Long.parseLong(due);
+    }
+
+    /**
+     * Sends the record to the next retry topic, or to the dead letter topic if the failure is not
+     * transient or all attempts are used
+     */
+    public void handleFailure(ConsumerRecord<String, byte[]> record, Exception exception) {
+        String topic = getOriginalTopic(record);
+        int attempt = getAttempt(record);
+
+        if (isNonRetryable(exception)) {
+            deadLetter(record, "non-retryable", exception);
+        } else if (attempt >= attempts) {
+            deadLetter(record, "retries-exhausted", exception);
+        } else {
+            long delay = (long) Math.min(delayMs * Math.pow(multiplier, attempt), maxDelayMs);
+
+            ProducerRecord<String, byte[]> retry = copy(getRetryTopic(topic, attempt), record);
+            setHeader(retry, ORIGINAL_TOPIC_HEADER, topic);
+            setHeader(retry, RETRY_ATTEMPT_HEADER, Integer.toString(attempt + 1));
+            setHeader(retry, RETRY_DUE_HEADER, Long.toString(System.currentTimeMillis() + delay));
+            send(retry);
+
+            Counter.builder("kafka.events.retries")
+                    .description("Events sent to a retry topic")
+                    .tag("topic", topic)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("processing of {}-{}@{} failed, retry {} in {}ms",
+                    record.topic(), record.partition(), record.offset(), attempt + 1, delay, exception);
+        }
+    }
+
+    /**
+     * Sends the record to the dead letter topic of its original topic
+     */
+    public void deadLetter(ConsumerRecord<String, byte[]> record, String reason, Exception exception) {
+        String topic = getOriginalTopic(record);
+
+        ProducerRecord<String, byte[]> deadLetter = copy(getDeadLetterTopic(topic), record);
+        setHeader(deadLetter, ORIGINAL_TOPIC_HEADER, topic);
+        setHeader(deadLetter, DLT_ORIGINAL_PARTITION_HEADER, Integer.toString(record.partition()));
+        setHeader(deadLetter, DLT_ORIGINAL_OFFSET_HEADER, Long.toString(record.offset()));
+        setHeader(deadLetter, DLT_REASON_HEADER, reason);
+        if (exception != null) {
+            setHeader(deadLetter, DLT_EXCEPTION_HEADER, exception.getClass().getName());
+            setHeader(deadLetter, DLT_EXCEPTION_MESSAGE_HEADER, String.valueOf(exception.getMessage()));
+        }
+        send(deadLetter);
+
+        Counter.builder("kafka.events.dead.lettered")
+                .description("Events sent to a dead letter topic")
+                .tag("topic", topic)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        logger.error("sent {}-{}@{} to dead letter topic, {}",
+                record.topic(), record.partition(), record.offset(), reason, exception);
+    }
+
+    private boolean isNonRetryable(Exception exception) {
+        return NON_RETRYABLE_EXCEPTIONS.stream().anyMatch(type -> type.isInstance(exception));
+    }
+
+    private int getAttempt(ConsumerRecord<String, byte[]> record) {
+        String attempt = getHeader(record, RETRY_ATTEMPT_HEADER);
+        return attempt == null ? 0 : Integer.parseInt(attempt);
+    }
+
+    private String getOriginalTopic(ConsumerRecord<String, byte[]> record) {
+        String topic = getHeader(record, ORIGINAL_TOPIC_HEADER);
+        return topic == null ? record.topic() : topic;
+    }
+
+    private static String getHeader(ConsumerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static void setHeader(ProducerRecord<String, byte[]> record, String name, String value) {
+        record.headers().remove(name);
+        record.headers().add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Copies key, value and headers, the format header in particular
+     */
+    private static ProducerRecord<String, byte[]> copy(String topic, ConsumerRecord<String, byte[]> record) {
+        return new ProducerRecord<>(topic, null, record.key(), record.value(), record.headers());
+    }
+
+    /**
+     * Sends synchronously, if the record can not be handed over the failure is propagated
+     * so the offset of the failed record is not committed
+     */
+    private void send(ProducerRecord<String, byte[]> record) {
+        try {
+            kafkaTemplate.send(record).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while sending to " + record.topic(), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("unable to send to " + record.topic(), e);
+        }
+    }
+}
@@ -8,18 +8,35 @@ import com.documentService.document.service.AuthorService;
 import com.documentService.document.service.DocumentService;
 import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Objects;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.*;
 
 import static com.documentService.document.messaging.KafkaEventPublisher.*;
+import static com.documentService.document.messaging.configuration.KafkaConsumerConfig.BATCH_LISTENER_CONTAINER_FACTORY;
 import static com.documentService.document.messaging.configuration.KafkaConsumerConfig.GROUP_ID;
+import static com.documentService.document.messaging.configuration.KafkaConsumerConfig.RETRY_LISTENER_CONTAINER_FACTORY;
 
 /**
  * This class polls various kafka topics and processes messages received on those topics
+ * Each listener runs one consumer per configured concurrency, a partition is consumed by one consumer
+ * of the group only, so events having the same key are still processed in order.
+ * Events failing to process are handed to the {@link FailedEventHandler}, which sends them to a retry
+ * or dead letter topic, so a failure neither blocks the partition nor loses the event.
+ * Every event is processed in one transaction with its claim in the {@link ProcessedEventLedger},
+ * redelivered events are skipped.
  */
 @Service
 @AllArgsConstructor
@@ -28,6 +45,20 @@ public class KafkaEventListener {
     private MessageDeserializer messageDeserializer;
     private AuthorService authorService;
     private DocumentService documentService;
+    private ClaimCheckStore claimCheckStore;
+    private KeyedRecordDispatcher keyedRecordDispatcher;
+    private FailedEventHandler failedEventHandler;
+    private KafkaListenerEndpointRegistry listenerEndpointRegistry;
+    private TaskScheduler taskScheduler;
+    private ProcessedEventLedger processedEventLedger;
+    private TransactionTemplate transactionTemplate;
+
+    private static final String RETRY_LISTENER_ID = "event-retries";
+
+    private static final Set<DocumentServiceEventType> BATCHED_EVENT_TYPES = EnumSet.of(
+            DocumentServiceEventType.CREATE_AUTHOR_EVENT,
+            DocumentServiceEventType.CREATE_DOCUMENT_EVENT,
+            DocumentServiceEventType.DELETE_DOCUMENT_EVENT);
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaEventListener.class);
 
@@ -36,55 +67,202 @@ public class KafkaEventListener {
         logger.info("Kafka consumer is ready to consumer events");
     }
 
-    @KafkaListener(topics = SERVICE_UPDATE_TOPIC, groupId = GROUP_ID)
-    public void listenServiceUpdates(String message) {
-        logger.info("received service update {}" , message);
-        handleEvent(message);
+    @KafkaListener(topics = SERVICE_UPDATE_TOPIC, groupId = GROUP_ID,
+            concurrency = "${kafka.consumer.service-updates.concurrency:1}")
+    public void listenServiceUpdates(ConsumerRecord<String, byte[]> record) {
+        logger.info("received service update {}" , record.key());
+        handleEvent(record);
     }
 
-    @KafkaListener(topics = AUTHOR_TOPIC, groupId = GROUP_ID)
-    public void listenAuthorEvents(String message) {
-        logger.info("received author-event {}" , message);
-        handleEvent(message);
+    @KafkaListener(topics = AUTHOR_TOPIC, groupId = GROUP_ID, containerFactory = BATCH_LISTENER_CONTAINER_FACTORY,
+            concurrency = "${kafka.consumer.author-events.concurrency:1}")
+    public void listenAuthorEvents(List<ConsumerRecord<String, byte[]>> records) {
+        logger.info("received {} author-events", records.size());
+        handleRecords(records);
     }
 
-    @KafkaListener(topics = DOCUMENT_TOPIC, groupId = GROUP_ID)
-    public void listenDocumentEvents(String message) {
-        logger.info("received document-event {}" , message);
-        handleEvent(message);
+    @KafkaListener(topics = DOCUMENT_TOPIC, groupId = GROUP_ID, containerFactory = BATCH_LISTENER_CONTAINER_FACTORY,
+            concurrency = "${kafka.consumer.document-events.concurrency:1}")
+    public void listenDocumentEvents(List<ConsumerRecord<String, byte[]>> records) {
+        logger.info("received {} document-events", records.size());
+        handleRecords(records);
     }
 
-    private void handleEvent(String message) {
-        try {
+    /**
+     * Consumes the retry topics. A record which is not due yet pauses its partition until it is due,
+     * without blocking the other retry topics.
+     */
+    @KafkaListener(id = RETRY_LISTENER_ID, topics = "#{@failedEventHandler.retryTopics}", groupId = GROUP_ID,
+            containerFactory = RETRY_LISTENER_CONTAINER_FACTORY)
+    public void listenRetries(ConsumerRecord<String, byte[]> record) {
+        long due = failedEventHandler.getDueTime(record);
+        if (due > System.currentTimeMillis()) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            MessageListenerContainer container = listenerEndpointRegistry.getListenerContainer(RETRY_LISTENER_ID);
+            container.pausePartition(partition);
+            taskScheduler.schedule(() -> container.resumePartition(partition), Instant.ofEpochMilli(due));
+            throw new RetryNotDueException("record " + partition + "@" + record.offset() + " is due at " + due);
+        }
+
+        logger.info("retrying event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+        handleEvent(record);
+    }
+
+    private void handleRecords(List<ConsumerRecord<String, byte[]>> records) {
+        if (keyedRecordDispatcher.isEnabled()) {
+            keyedRecordDispatcher.dispatch(records, this::handleEvent);
+        } else {
+            handleBatch(records);
+        }
+    }
+
+    private void handleEvent(ConsumerRecord<String, byte[]> record) {
+
+        AbstractDocumentServiceEvent event = messageDeserializer.parseEvent(record);
+        if(event == null){
+            failedEventHandler.deadLetter(record, "unparseable", null);
+            return;
+        }
+
+        processEventSafely(new ParsedEvent(record, event));
+    }
 
-            AbstractDocumentServiceEvent event = messageDeserializer.parseEvent(message);
-            if(event == null){
-                logger.error("unable to parse event {}", message);
+    /**
+     * Processes all records of one poll in offset order. Consecutive creates or deletes of the same kind are
+     * grouped and each group is persisted in a single transaction, together with the claims of its events.
+     * Only consecutive events are grouped, so an event is never processed before an earlier event of
+     * another kind, e.g. a create of an author before the delete of an author with the same username.
+     * If a group fails, its events are retried one by one so that a single bad record does not prevent the
+     * rest of the group from being stored, events still failing are handed to the failed event handler.
+     */
+    private void handleBatch(List<ConsumerRecord<String, byte[]>> records) {
+
+        List<ParsedEvent> run = new ArrayList<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            AbstractDocumentServiceEvent event = messageDeserializer.parseEvent(record);
+            if (event == null) {
+                failedEventHandler.deadLetter(record, "unparseable", null);
+                continue;
+            }
+            if (!run.isEmpty() && run.get(0).event().getEventType() != event.getEventType()) {
+                handleRun(run);
+                run = new ArrayList<>();
             }
+            run.add(new ParsedEvent(record, event));
+        }
+        handleRun(run);
+    }
 
-            switch (Objects.requireNonNull(event).getEventType()) {
-                case CREATE_AUTHOR_EVENT:
-                    createAuthor(event);
-                    break;
-                case DELETE_AUTHOR_EVENT:
-                    deleteAuthor(event);
-                    break;
-                case CREATE_DOCUMENT_EVENT:
-                    createDocument(event);
-                    break;
-                case DELETE_DOCUMENT_EVENT:
-                    deleteDocument(event);
-                    break;
-                case SERVICE_UPDATE_EVENT:
-                    logger.info("received service update: {}", event);
-                    break;
+    /**
+     * Processes consecutive events of the same type
+     */
+    private void handleRun(List<ParsedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        DocumentServiceEventType type = events.get(0).event().getEventType();
+        if (!BATCHED_EVENT_TYPES.contains(type)) {
+            events.forEach(this::processEventSafely);
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> processEvents(type, claim(events)));
+        } catch (Exception e) {
+            logger.warn("batch of {} {} failed, processing events one by one", events.size(), type, e);
+            events.forEach(this::processEventSafely);
+        }
+    }
+
+    /**
+     * Returns the events which were not processed before, events without id are always processed
+     */
+    private List<ParsedEvent> claim(List<ParsedEvent> events) {
+        Set<String> claimed = processedEventLedger.claim(events.stream()
+                .map(event -> event.event().getEventId())
+                .filter(Objects::nonNull)
+                .toList());
+
+        List<ParsedEvent> unprocessed = new ArrayList<>(events.size());
+        for (ParsedEvent event : events) {
+            String eventId = event.event().getEventId();
+            // remove, so an event contained twice in the batch is processed once
+            if (eventId == null || claimed.remove(eventId)) {
+                unprocessed.add(event);
             }
+        }
+        if (unprocessed.size() < events.size()) {
+            logger.info("skipping {} already processed events", events.size() - unprocessed.size());
+        }
+        return unprocessed;
+    }
+
+    private void processEvents(DocumentServiceEventType type, List<ParsedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        switch (type) {
+            case CREATE_AUTHOR_EVENT:
+                List<Author> authors = authorService.saveAll(events.stream().map(ParsedEvent::event).map(this::toAuthor).toList());
+                logger.info("created {} authors", authors.size());
+                break;
+            case CREATE_DOCUMENT_EVENT:
+                List<Document> documents = documentService.saveAll(events.stream().map(ParsedEvent::event).map(this::toDocument).toList());
+                logger.info("created {} documents", documents.size());
+                break;
+            case DELETE_DOCUMENT_EVENT:
+                List<Long> documentIds = events.stream()
+                        .map(event -> ((DeleteDocumentEvent) event.event()).getDocumentId())
+                        .toList();
+                documentService.deleteAll(documentIds);
+                logger.info("deleted {} documents", documentIds.size());
+                break;
+            default:
+                throw new IllegalArgumentException(type + " events are not processed in batches");
+        }
+    }
+
+    private void processEventSafely(ParsedEvent parsedEvent) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                String eventId = parsedEvent.event().getEventId();
+                if (eventId != null && !processedEventLedger.claim(eventId)) {
+                    logger.info("skipping already processed event {}", eventId);
+                    return;
+                }
+                processEvent(parsedEvent.event());
+            });
         } catch (Exception e) {
-            logger.error("error during kafka message processing", e);
+            failedEventHandler.handleFailure(parsedEvent.record(), e);
+        }
+    }
+
+    private void processEvent(AbstractDocumentServiceEvent event) {
+        switch (event.getEventType()) {
+            case CREATE_AUTHOR_EVENT:
+                createAuthor(event);
+                break;
+            case DELETE_AUTHOR_EVENT:
+                deleteAuthor(event);
+                break;
+            case CREATE_DOCUMENT_EVENT:
+                createDocument(event);
+                break;
+            case DELETE_DOCUMENT_EVENT:
+                deleteDocument(event);
+                break;
+            case SERVICE_UPDATE_EVENT:
+                logger.info("received service update: {}", event);
+                break;
         }
     }
 
     private void createAuthor(AbstractDocumentServiceEvent event) {
+        Author author = authorService.saveAuthor(toAuthor(event));
+
+        logger.info("author created {}", author.getId());
+    }
+
+    private Author toAuthor(AbstractDocumentServiceEvent event) {
         CreateAuthorEvent createAuthorEvent = (CreateAuthorEvent) event;
 
         Author author = new Author();
@@ -95,9 +273,7 @@ public class KafkaEventListener {
         author.setFirstName(createAuthorEvent.getFirstName());
         author.setLastName(createAuthorEvent.getLastName());
 
-        author = authorService.saveAuthor(author);
-
-        logger.info("author created {}", author.getId());
+        return author;
     }
 
     private void deleteAuthor(AbstractDocumentServiceEvent event){
@@ -109,17 +285,24 @@ public class KafkaEventListener {
     }
 
     private void createDocument(AbstractDocumentServiceEvent event){
-        CreateDocumentEvent createDocumentEvent = (CreateDocumentEvent) event;
+        Document document = documentService.saveDocument(toDocument(event));
+        logger.info("created document {}", document.getId());
+    }
 
+    private Document toDocument(AbstractDocumentServiceEvent event){
+        CreateDocumentEvent createDocumentEvent = (CreateDocumentEvent) event;
 
         Document document = new Document();
         document.setTitle(createDocumentEvent.getTitle());
         document.setAuthorId(createDocumentEvent.getAuthorId());
-        document.setBody(createDocumentEvent.getBody());
+        try {
+            document.setBody(claimCheckStore.checkOut(createDocumentEvent));
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to read body " + createDocumentEvent.getBodyRef(), e);
+        }
         document.setReferenceIds(createDocumentEvent.getReferenceIds());
 
-        document = documentService.saveDocument(document);
-        logger.info("created document {}", document.getId());
+        return document;
     }
 
     private void deleteDocument(AbstractDocumentServiceEvent event){
@@ -129,4 +312,7 @@ public class KafkaEventListener {
         documentService.deleteDocument(deleteDocumentEvent.getDocumentId());
         logger.info("deleted document {}", deleteDocumentEvent.getDocumentId());
     }
+
+    private record ParsedEvent(ConsumerRecord<String, byte[]> record, AbstractDocumentServiceEvent event) {
+    }
 }
@@ -1,43 +1,77 @@
 package com.documentService.document.messaging;
 
+import com.documentService.document.messaging.codec.EventCodec;
 import com.documentService.document.messaging.events.AbstractDocumentServiceEvent;
+import com.documentService.document.messaging.events.CreateDocumentEvent;
 import com.documentService.document.messaging.events.DocumentServiceEventType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.AllArgsConstructor;
+import com.documentService.document.model.OutboxEvent;
+import com.documentService.document.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * This class is used to publish events to kafka topics.
  * based on event, the class determines which topic to send the events
+ * Events are not sent directly, they are stored in the outbox as part of the caller's transaction
+ * and sent by the {@link OutboxRelay} once that transaction is committed. So an event is sent
+ * if and only if the change it describes is committed.
+ * Events are encoded with the codec configured by kafka.producer.event-format.
+ * Large document bodies are moved to the {@link ClaimCheckStore} before the event is stored.
  */
 @Service
-@AllArgsConstructor
 public class KafkaEventPublisher {
 
     public static final String AUTHOR_TOPIC = "author-events";
     public static final String DOCUMENT_TOPIC = "document-events";
     public static final String SERVICE_UPDATE_TOPIC = "service-updates";
 
-    private KafkaTemplate<String, String> kafkaTemplate;
-    private ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventCodec codec;
+    private final ClaimCheckStore claimCheckStore;
 
     private static final Logger logger = LoggerFactory.getLogger(KafkaEventPublisher.class);
 
+    public KafkaEventPublisher(OutboxEventRepository outboxEventRepository,
+                               List<EventCodec> codecs,
+                               @Value("${kafka.producer.event-format:json}") String format,
+                               ClaimCheckStore claimCheckStore) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.claimCheckStore = claimCheckStore;
+        this.codec = codecs.stream()
+                .filter(codec -> codec.getFormat().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("unknown event format " + format));
+    }
+
+    @Transactional
     public void publish(AbstractDocumentServiceEvent event){
 
         String topic = getTopic(event);
+        if (event.getEventId() == null) {
+            event.setEventId(UUID.randomUUID().toString());
+        }
 
+        byte[] payload;
         try{
-            String payload = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(topic, payload);
-            logger.info("successfully published {}", event.getEventType());
-        } catch (Exception e){
-            logger.error("Got error during publish", e);
+            if (event instanceof CreateDocumentEvent createDocumentEvent) {
+                claimCheckStore.checkIn(createDocumentEvent);
+            }
+            payload = codec.encode(event);
+        } catch (IOException e){
+            throw new IllegalStateException("unable to serialize " + event.getEventType(), e);
         }
 
+        outboxEventRepository.save(new OutboxEvent(null, topic, event.getPartitionKey(), codec.getFormat(),
+                payload, null));
+        logger.info("successfully published {}", event.getEventType());
+
     }
 
     private String getTopic(AbstractDocumentServiceEvent event){
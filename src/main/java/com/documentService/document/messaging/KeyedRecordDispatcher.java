@@ -0,0 +1,73 @@
+package com.documentService.document.messaging;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * This class processes the records of a poll in parallel. Records are split into lanes by their key, each lane
+ * is processed in order on a bounded pool, so events of the same entity keep their order while events of
+ * different entities are processed concurrently. Dispatching returns after all lanes are done, the listener
+ * container commits the offsets of the poll only afterwards.
+ */
+@Component
+public class KeyedRecordDispatcher {
+
+    private final boolean enabled;
+    private final int lanes;
+    private final ExecutorService executor;
+
+    public KeyedRecordDispatcher(@Value("${kafka.consumer.parallel.enabled:false}") boolean enabled,
+                                 @Value("${kafka.consumer.parallel.threads:8}") int threads) {
+        this.enabled = enabled;
+        this.lanes = threads;
+        // when all threads are busy and the queue is full the listener thread processes the lane itself
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new CustomizableThreadFactory("event-lane-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <K, V> void dispatch(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+
+        List<List<ConsumerRecord<K, V>>> recordsByLane = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            recordsByLane.add(new ArrayList<>());
+        }
+        for (ConsumerRecord<K, V> record : records) {
+            recordsByLane.get(getLane(record)).add(record);
+        }
+
+        List<CompletableFuture<Void>> results = new ArrayList<>(lanes);
+        for (List<ConsumerRecord<K, V>> lane : recordsByLane) {
+            if (!lane.isEmpty()) {
+                results.add(CompletableFuture.runAsync(() -> lane.forEach(handler), executor));
+            }
+        }
+
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Records without key are only ordered within their partition, they are kept in one lane per partition
+     */
+    private int getLane(ConsumerRecord<?, ?> record) {
+        Object key = record.key() != null ? record.key() : record.topic() + "-" + record.partition();
+        return Math.floorMod(key.hashCode(), lanes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,54 +1,57 @@
 package com.documentService.document.messaging;
 
+import com.documentService.document.messaging.codec.EventCodec;
 import com.documentService.document.messaging.events.*;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.AllArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.documentService.document.messaging.codec.EventCodecConfig.JSON_FORMAT;
+
 /**
- * This service consumes kafka events as string, and using this class, the kafka events are converted to
+ * This service consumes kafka events as bytes, and using this class, the kafka events are converted to
  * respective service events
+ * The codec is chosen by the format header of the record, records without the header are json.
  */
 @Service
-@AllArgsConstructor
 public class MessageDeserializer {
 
-    private ObjectMapper objectMapper;
+    private final Map<String, EventCodec> codecs = new HashMap<>();
     private static final Logger logger = LoggerFactory.getLogger(MessageDeserializer.class);
 
-    private DocumentServiceEventType getType(String message){
-
-        try {
-            JsonNode parsedData = objectMapper.readTree(message);
+    public MessageDeserializer(List<EventCodec> codecs) {
+        codecs.forEach(codec -> this.codecs.put(codec.getFormat(), codec));
+    }
 
-            return DocumentServiceEventType.valueOf(parsedData.get("eventType").textValue());
+    public AbstractDocumentServiceEvent parseEvent(ConsumerRecord<String, byte[]> record){
 
-        } catch (Exception e){
-            logger.error("error during message deserialization", e);
-            return null;
-        }
+        Header header = record.headers().lastHeader(EventCodec.FORMAT_HEADER);
+        String format = header == null ? JSON_FORMAT : new String(header.value(), StandardCharsets.UTF_8);
 
+        return parseEvent(format, record.value());
     }
 
     public AbstractDocumentServiceEvent parseEvent(String message){
+        return parseEvent(JSON_FORMAT, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private AbstractDocumentServiceEvent parseEvent(String format, byte[] payload){
 
-        DocumentServiceEventType type = getType(message);
-        if(type == null) {
-            logger.error("unable to parse event");
+        EventCodec codec = codecs.get(format);
+        if (codec == null) {
+            logger.error("unable to parse event, unknown format {}", format);
             return null;
         }
 
         try {
-            return switch (type){
-                case CREATE_AUTHOR_EVENT -> objectMapper.readValue(message, CreateAuthorEvent.class);
-                case DELETE_AUTHOR_EVENT -> objectMapper.readValue(message, DeleteAuthorEvent.class);
-                case SERVICE_UPDATE_EVENT -> objectMapper.readValue(message, ServiceUpdateEvent.class);
-                case CREATE_DOCUMENT_EVENT -> objectMapper.readValue(message, CreateDocumentEvent.class);
-                case DELETE_DOCUMENT_EVENT -> objectMapper.readValue(message, DeleteDocumentEvent.class);
-            };
+            return codec.decode(payload);
         } catch (Exception e){
             logger.error("unable to parse event", e);
             return null;
@@ -0,0 +1,142 @@
+package com.documentService.document.messaging;
+
+import com.documentService.document.messaging.codec.EventCodec;
+import com.documentService.document.model.OutboxEvent;
+import com.documentService.document.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class sends the events stored in the outbox to kafka. A batch of events is handed to the
+ * producer at once so it can be sent in few large requests, the events are removed from the outbox
+ * only after kafka acknowledged all of them. If sending fails the batch stays in the outbox and
+ * is sent again on the next run, so every event is delivered at least once. Only one instance
+ * relays at a time and events are sent in the order they were stored, by the database timestamp taken
+ * when an event is inserted, with the id as tiebreak. Outbox ids are allocated in pooled blocks so event
+ * inserts can be batched, which is why they do not give the order across instances.
+ * Transactions running at the same time may commit in a different order than they stored their events.
+ * Events of the same key are kept in order as long as their writes do not
+ * overlap, which holds for writes of the same entity since they wait for each other's row locks.
+ */
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSizeSummary;
+
+    // arbitrary id of the postgres advisory lock guarding the relay
+    private static final long RELAY_LOCK_ID = 7_301_013L;
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${outbox.relay.batch-size}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms}") long sendTimeoutMs,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.meterRegistry = meterRegistry;
+        this.batchSizeSummary = DistributionSummary.builder("kafka.publish.batch.size")
+                .description("Number of events handed to the producer in one relay batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception e) {
+            logger.error("unable to relay outbox events, will retry", e);
+        }
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryLockRelay(RELAY_LOCK_ID)) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        batchSizeSummary.record(events.size());
+
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            ProducerRecord<String, byte[]> record =
+                    new ProducerRecord<>(event.getTopic(), event.getEventKey(), event.getPayload());
+            record.headers().add(EventCodec.FORMAT_HEADER, event.getFormat().getBytes(StandardCharsets.UTF_8));
+            CompletableFuture<SendResult<String, byte[]>> send = kafkaTemplate.send(record);
+            sends[i] = send.whenComplete((result, error) -> recordSend(event.getTopic(), sample, error));
+        }
+
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while sending outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("unable to send " + events.size() + " outbox events", e);
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        logger.debug("relayed {} outbox events", events.size());
+        return events.size();
+    }
+
+    /**
+     * Records the time from handing an event to the producer until kafka acknowledged it,
+     * failed sends are counted separately
+     */
+    private void recordSend(String topic, Timer.Sample sample, Throwable error) {
+        sample.stop(Timer.builder("kafka.publish.latency")
+                .description("Time until a sent event is acknowledged by kafka")
+                .tag("topic", topic)
+                .tag("outcome", error == null ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+
+        if (error != null) {
+            Counter.builder("kafka.publish.errors")
+                    .description("Events kafka failed to acknowledge")
+                    .tag("topic", topic)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.documentService.document.messaging;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * This class records which events have been processed, so redelivered events are processed only once.
+ * An event is claimed by inserting its id into the processed_event table in the transaction which processes
+ * the event, if the processing is rolled back the claim is rolled back with it. The insert is the check,
+ * no additional query is needed. Ids of recently committed claims are kept in memory to skip
+ * redeliveries without a database round trip.
+ */
+@Component
+public class ProcessedEventLedger {
+
+    public static final String CACHE_NAME = "processed-events";
+
+    private static final String CLAIM_QUERY = "insert into processed_event (event_id, processed_at) " +
+            "select event_id, now() from unnest(?) as event_id on conflict do nothing returning event_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Boolean> recentlyProcessed;
+    private final Duration retention;
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedEventLedger.class);
+
+    public ProcessedEventLedger(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${kafka.dedup.cache-size:100000}") long cacheSize,
+                                @Value("${kafka.dedup.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+        this.recentlyProcessed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentlyProcessed, CACHE_NAME);
+    }
+
+    /**
+     * Claims the given event ids for the current transaction and returns the ids which were not processed before.
+     * An id given more than once is returned once.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Set<String> claim(Collection<String> eventIds) {
+
+        List<String> unknown = eventIds.stream()
+                .filter(eventId -> recentlyProcessed.getIfPresent(eventId) == null)
+                .distinct()
+                .toList();
+        if (unknown.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> claimed = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CLAIM_QUERY);
+            Array ids = connection.createArrayOf("varchar", unknown.toArray());
+            statement.setArray(1, ids);
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getString(1)));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                claimed.forEach(eventId -> recentlyProcessed.put(eventId, Boolean.TRUE));
+            }
+        });
+        return claimed;
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public boolean claim(String eventId) {
+        return claim(List.of(eventId)).contains(eventId);
+    }
+
+    /**
+     * Removes ids older than the retention, events redelivered after that are processed again
+     */
+    @Scheduled(fixedDelayString = "${kafka.dedup.cleanup-interval-ms:3600000}")
+    public void removeExpired() {
+        int removed = jdbcTemplate.update("delete from processed_event where processed_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        logger.debug("removed {} expired processed event ids", removed);
+    }
+}
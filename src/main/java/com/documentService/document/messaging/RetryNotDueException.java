@@ -0,0 +1,12 @@
+package com.documentService.document.messaging;
+
+/**
+ * Thrown by the retry listener for a record whose back off has not passed yet. The partition is paused
+ * until the record is due and the record is delivered again afterwards.
+ */
+public class RetryNotDueException extends RuntimeException {
+
+    public RetryNotDueException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.documentService.document.messaging.codec;
+
+import com.documentService.document.messaging.events.AbstractDocumentServiceEvent;
+
+import java.io.IOException;
+
+/**
+ * Converts service events to the bytes sent to kafka and back. The format of a record is sent in the
+ * {@link #FORMAT_HEADER} header, so consumers can read records of every known format while producers
+ * switch between formats.
+ */
+public interface EventCodec {
+
+    String FORMAT_HEADER = "event-format";
+
+    /**
+     * Name of the format, written to the {@link #FORMAT_HEADER} header
+     */
+    String getFormat();
+
+    byte[] encode(AbstractDocumentServiceEvent event) throws IOException;
+
+    AbstractDocumentServiceEvent decode(byte[] payload) throws IOException;
+
+}
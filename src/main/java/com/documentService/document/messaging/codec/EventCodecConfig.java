@@ -0,0 +1,31 @@
+package com.documentService.document.messaging.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class defines the formats events can be sent in. Consumers read all of them,
+ * producers use the one configured by kafka.producer.event-format.
+ */
+@Configuration
+public class EventCodecConfig {
+
+    public static final String JSON_FORMAT = "json";
+    public static final String SMILE_FORMAT = "smile";
+
+    @Bean
+    public EventCodec jsonEventCodec(ObjectMapper objectMapper) {
+        return new JacksonEventCodec(JSON_FORMAT, objectMapper);
+    }
+
+    /**
+     * Smile is a binary encoding of json. It is binary safe, uses back references for repeated
+     * property names and values and is cheaper to parse than text, while binding the same classes.
+     */
+    @Bean
+    public EventCodec smileEventCodec(ObjectMapper objectMapper) {
+        return new JacksonEventCodec(SMILE_FORMAT, objectMapper.copyWith(new SmileFactory()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.documentService.document.messaging.codec;
+
+import com.documentService.document.messaging.events.*;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Event codec for the formats supported by jackson, json and its binary counterpart smile.
+ * Events are written with eventType as first property, so the type is read from the first token and the rest
+ * of the message is bound by a reader prepared for that type, the message is parsed only once. Messages having
+ * eventType elsewhere are still accepted, they are parsed into a tree first.
+ */
+public class JacksonEventCodec implements EventCodec {
+
+    private static final String EVENT_TYPE_PROPERTY = "eventType";
+
+    private final String format;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+    private final Map<DocumentServiceEventType, ObjectReader> readers = new EnumMap<>(DocumentServiceEventType.class);
+
+    public JacksonEventCodec(String format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writer();
+        for (DocumentServiceEventType type : DocumentServiceEventType.values()) {
+            readers.put(type, objectMapper.readerFor(getEventClass(type)));
+        }
+    }
+
+    private static Class<? extends AbstractDocumentServiceEvent> getEventClass(DocumentServiceEventType type) {
+        return switch (type){
+            case CREATE_AUTHOR_EVENT -> CreateAuthorEvent.class;
+            case DELETE_AUTHOR_EVENT -> DeleteAuthorEvent.class;
+            case SERVICE_UPDATE_EVENT -> ServiceUpdateEvent.class;
+            case CREATE_DOCUMENT_EVENT -> CreateDocumentEvent.class;
+            case DELETE_DOCUMENT_EVENT -> DeleteDocumentEvent.class;
+        };
+    }
+
+    @Override
+    public String getFormat() {
+        return format;
+    }
+
+    @Override
+    public byte[] encode(AbstractDocumentServiceEvent event) throws IOException {
+        return writer.writeValueAsBytes(event);
+    }
+
+    @Override
+    public AbstractDocumentServiceEvent decode(byte[] payload) throws IOException {
+
+        try (JsonParser parser = objectMapper.createParser(payload)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("event is not an object");
+            }
+
+            if (parser.nextToken() == JsonToken.FIELD_NAME && EVENT_TYPE_PROPERTY.equals(parser.currentName())) {
+                parser.nextToken();
+                DocumentServiceEventType type = DocumentServiceEventType.valueOf(parser.getText());
+                // the parser is positioned on the next property, the reader binds the remaining properties
+                parser.nextToken();
+                return readers.get(type).readValue(parser);
+            }
+        }
+
+        return decodeTree(payload);
+    }
+
+    private AbstractDocumentServiceEvent decodeTree(byte[] payload) throws IOException {
+
+        JsonNode parsedData = objectMapper.readTree(payload);
+        JsonNode eventType = parsedData.get(EVENT_TYPE_PROPERTY);
+        if (eventType == null) {
+            throw new IOException(EVENT_TYPE_PROPERTY + " is missing");
+        }
+
+        DocumentServiceEventType type = DocumentServiceEventType.valueOf(eventType.textValue());
+        return readers.get(type).readValue(parsedData);
+    }
+}
@@ -1,6 +1,8 @@
 package com.documentService.document.messaging.configuration;
 
+import com.documentService.document.messaging.RetryNotDueException;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -11,6 +13,9 @@ import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,25 +29,86 @@ import java.util.Map;
 public class KafkaConsumerConfig {
 
     public static final String GROUP_ID = "group_id";
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+    public static final String RETRY_LISTENER_CONTAINER_FACTORY = "retryKafkaListenerContainerFactory";
 
     @Value("${kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.consumer.max-batch-size:500}")
+    private int maxBatchSize;
+
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
-        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        return new DefaultKafkaConsumerFactory<>(configProps);
+    public ConsumerFactory<String, byte[]> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs());
+    }
+
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, byte[]>> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setPollTimeout(3000);
+        return factory;
     }
 
+    /**
+     * Consumer factory for batch listeners, a single poll returns at most max-batch-size records
+     */
     @Bean
-    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, String>> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConsumerFactory<String, byte[]> batchConsumerFactory() {
+        Map<String, Object> configProps = consumerConfigs();
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxBatchSize);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    /**
+     * Container factory for listeners receiving all records of a poll as one list
+     */
+    @Bean(BATCH_LISTENER_CONTAINER_FACTORY)
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, byte[]>> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setPollTimeout(3000);
+        return factory;
+    }
+
+    /**
+     * Container factory for the retry listener. Offsets are committed per record. A record which is not due
+     * is delivered again immediately, its partition is paused meanwhile so it is not polled before it is due.
+     * Other failures can only come from sending to the next retry or dead letter topic, they are retried
+     * every second until kafka is available again.
+     */
+    @Bean(RETRY_LISTENER_CONTAINER_FACTORY)
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, byte[]>> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
         factory.getContainerProperties().setPollTimeout(3000);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, FixedBackOff.UNLIMITED_ATTEMPTS));
+        errorHandler.setBackOffFunction((record, exception) -> isRetryNotDue(exception)
+                ? new FixedBackOff(0L, FixedBackOff.UNLIMITED_ATTEMPTS)
+                : null);
+        factory.setCommonErrorHandler(errorHandler);
         return factory;
     }
+
+    private static boolean isRetryNotDue(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryNotDueException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Object> consumerConfigs() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return configProps;
+    }
 }
@@ -1,20 +1,31 @@
 package com.documentService.document.messaging.configuration;
 
+import com.documentService.document.messaging.FailedEventHandler;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewPartitions;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import static com.documentService.document.messaging.KafkaEventPublisher.*;
 
 /**
  * This class is used to create Topics on Kafka.
+ * The number of partitions is configured per topic, existing topics having fewer partitions are extended.
+ * Every topic gets retry topics and a dead letter topic with the same number of partitions.
  */
 @Configuration
 public class KafkaTopicConfig {
@@ -22,6 +33,23 @@ public class KafkaTopicConfig {
     @Value("${kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.topic.replication-factor:1}")
+    private short replicationFactor;
+
+    @Value("${kafka.topic.service-updates.partitions:1}")
+    private int serviceUpdatePartitions;
+
+    @Value("${kafka.topic.author-events.partitions:1}")
+    private int authorPartitions;
+
+    @Value("${kafka.topic.document-events.partitions:1}")
+    private int documentPartitions;
+
+    @Value("${kafka.retry.attempts:3}")
+    private int retryAttempts;
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaTopicConfig.class);
+
     @Bean
     public AdminClient kafkaAdminClient() {
         Properties properties = new Properties();
@@ -32,14 +60,43 @@ public class KafkaTopicConfig {
     @Bean
     public CommandLineRunner createTopics(AdminClient adminClient) {
         return args -> {
-            NewTopic serviceUpdatesTopic = new NewTopic(SERVICE_UPDATE_TOPIC, 1, (short) 1);
-            NewTopic authorEventsTopic = new NewTopic(AUTHOR_TOPIC, 1, (short) 1);
-            NewTopic documentEventsTopic = new NewTopic(DOCUMENT_TOPIC, 1, (short) 1);
+            List<NewTopic> topics = new ArrayList<>();
+            addTopics(topics, SERVICE_UPDATE_TOPIC, serviceUpdatePartitions);
+            addTopics(topics, AUTHOR_TOPIC, authorPartitions);
+            addTopics(topics, DOCUMENT_TOPIC, documentPartitions);
 
-            adminClient.createTopics(Collections.singletonList(serviceUpdatesTopic));
-            adminClient.createTopics(Collections.singletonList(authorEventsTopic));
-            adminClient.createTopics(Collections.singletonList(documentEventsTopic));
+            Set<String> existing = adminClient.listTopics().names().get();
+            for (NewTopic topic : topics) {
+                if (existing.contains(topic.name())) {
+                    increasePartitions(adminClient, topic);
+                } else {
+                    adminClient.createTopics(Collections.singletonList(topic));
+                }
+            }
         };
 
     }
+
+    private void addTopics(List<NewTopic> topics, String topic, int partitions) {
+        topics.add(new NewTopic(topic, partitions, replicationFactor));
+        for (int attempt = 0; attempt < retryAttempts; attempt++) {
+            topics.add(new NewTopic(FailedEventHandler.getRetryTopic(topic, attempt), partitions, replicationFactor));
+        }
+        topics.add(new NewTopic(FailedEventHandler.getDeadLetterTopic(topic), partitions, replicationFactor));
+    }
+
+    /**
+     * Partitions can only be added. Note that adding partitions moves keys to other partitions,
+     * events published before and after the change are not ordered relative to each other.
+     */
+    private void increasePartitions(AdminClient adminClient, NewTopic topic) throws Exception {
+        Map<String, TopicDescription> descriptions =
+                adminClient.describeTopics(Collections.singletonList(topic.name())).allTopicNames().get();
+        int current = descriptions.get(topic.name()).partitions().size();
+
+        if (current < topic.numPartitions()) {
+            logger.info("increasing partitions of {} from {} to {}", topic.name(), current, topic.numPartitions());
+            adminClient.createPartitions(Map.of(topic.name(), NewPartitions.increaseTo(topic.numPartitions()))).all().get();
+        }
+    }
 }
@@ -1,12 +1,32 @@
 package com.documentService.document.messaging.events;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+
 /**
  * This is a generalised super class for all service events. Using the class the event handling
  * can be made generic, the other classes in this package are extending from this super class
  * and are used to define various service events
+ * The event type is always written first, which allows reading the type before binding the rest of the event.
  */
+@Data
+@JsonPropertyOrder({"eventType"})
 public abstract class AbstractDocumentServiceEvent {
 
+    /**
+     * Unique id of the event, assigned when the event is published. A redelivered event has the same id,
+     * which allows consumers to recognise events they have already processed.
+     */
+    private String eventId;
+
     public abstract DocumentServiceEventType getEventType();
 
+    /**
+     * Kafka record key of the event, events with the same key go to the same partition
+     * and are therefore consumed in the order they were published
+     */
+    @JsonIgnore
+    public abstract String getPartitionKey();
+
 }
@@ -21,4 +21,9 @@ public class CreateAuthorEvent extends AbstractDocumentServiceEvent {
     public DocumentServiceEventType getEventType() {
         return DocumentServiceEventType.CREATE_AUTHOR_EVENT;
     }
+
+    @Override
+    public String getPartitionKey() {
+        return username;
+    }
 }
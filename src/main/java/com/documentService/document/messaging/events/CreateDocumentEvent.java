@@ -18,8 +18,30 @@ public class CreateDocumentEvent extends AbstractDocumentServiceEvent {
     private Long authorId;
     private Set<Long> referenceIds;
 
+    /**
+     * Reference to the body in the blob store, set instead of body for large bodies
+     */
+    private String bodyRef;
+
+    /**
+     * SHA-256 checksum of the body in the blob store
+     */
+    private String bodyChecksum;
+
+    public CreateDocumentEvent(String title, String body, Long authorId, Set<Long> referenceIds) {
+        this(title, body, authorId, referenceIds, null, null);
+    }
+
     @Override
     public DocumentServiceEventType getEventType() {
         return DocumentServiceEventType.CREATE_DOCUMENT_EVENT;
     }
+
+    /**
+     * The document has no id yet, documents of the same author are kept in order
+     */
+    @Override
+    public String getPartitionKey() {
+        return authorId == null ? null : authorId.toString();
+    }
 }
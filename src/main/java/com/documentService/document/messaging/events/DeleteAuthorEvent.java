@@ -13,8 +13,23 @@ public class DeleteAuthorEvent extends AbstractDocumentServiceEvent {
 
     private long authorId;
 
+    /**
+     * Username of the deleted author, only used as partition key. Creates of an author are keyed by username
+     * since they have no id yet, keying deletes the same way keeps both on the same partition and in order.
+     */
+    private String username;
+
+    public DeleteAuthorEvent(long authorId) {
+        this.authorId = authorId;
+    }
+
     @Override
     public DocumentServiceEventType getEventType() {
         return DocumentServiceEventType.DELETE_AUTHOR_EVENT;
     }
+
+    @Override
+    public String getPartitionKey() {
+        return username != null ? username : Long.toString(authorId);
+    }
 }
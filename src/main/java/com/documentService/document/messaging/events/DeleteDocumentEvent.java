@@ -17,4 +17,9 @@ public class DeleteDocumentEvent extends AbstractDocumentServiceEvent {
     public DocumentServiceEventType getEventType() {
         return DocumentServiceEventType.DELETE_DOCUMENT_EVENT;
     }
+
+    @Override
+    public String getPartitionKey() {
+        return Long.toString(documentId);
+    }
 }
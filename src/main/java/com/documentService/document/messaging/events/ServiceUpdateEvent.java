@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
@@ -16,10 +17,26 @@ public class ServiceUpdateEvent extends AbstractDocumentServiceEvent {
     private Long documentId;
     private ServiceUpdateType updateType;
 
+    /**
+     * References of a created or updated document, so other instances can update their reference graph
+     * without reading the document. Null if not known by the sender.
+     */
+    private Set<Long> referenceIds;
+
+    public ServiceUpdateEvent(Long authorId, Long documentId, ServiceUpdateType updateType) {
+        this.authorId = authorId;
+        this.documentId = documentId;
+        this.updateType = updateType;
+    }
+
     @Override
     public DocumentServiceEventType getEventType() {
         return DocumentServiceEventType.SERVICE_UPDATE_EVENT;
     }
 
-
+    @Override
+    public String getPartitionKey() {
+        Long id = documentId != null ? documentId : authorId;
+        return id == null ? null : id.toString();
+    }
 }
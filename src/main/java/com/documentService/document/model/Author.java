@@ -1,19 +1,15 @@
 package com.documentService.document.model;
 
-import io.hypersistence.utils.hibernate.type.json.JsonType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.Type;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 
 @Entity
 @Data
@@ -22,7 +18,8 @@ import java.util.Set;
 public class Author implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     private Long id;
 
     private String firstName;
@@ -32,20 +29,6 @@ public class Author implements UserDetails {
     private String username;
     private String password;
 
-    @Type(JsonType.class)
-    private Set<Long> documentIds = new HashSet<>();
-
-    public void addDocument(Document document) {
-        if (document == null) {
-            throw new IllegalStateException("null document not allowed");
-        }
-        this.documentIds.add(document.getId());
-    }
-
-    public void removeDocument(Document document) {
-        this.documentIds.remove(document.getId());
-    }
-
     @Enumerated(EnumType.STRING)
     private Role role;
 
@@ -0,0 +1,45 @@
+package com.documentService.document.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An event waiting to be sent to kafka. Stored in the same transaction as the change it describes.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    /**
+     * Taken from the sequence in pooled blocks, so the ids of different instances do not follow the order
+     * the events were stored in. The relay orders by createdAt and uses the id only as tiebreak.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    private String topic;
+
+    private String eventKey;
+
+    /**
+     * Format the payload is encoded in, sent as record header
+     */
+    private String format;
+
+    private byte[] payload;
+
+    /**
+     * Set by the database clock when the event is inserted, so it is comparable across instances
+     */
+    @Column(insertable = false, updatable = false)
+    private Instant createdAt;
+
+}
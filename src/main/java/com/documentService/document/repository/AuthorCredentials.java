@@ -0,0 +1,17 @@
+package com.documentService.document.repository;
+
+import com.documentService.document.model.Role;
+
+/**
+ * Projection of an author holding only what is needed for authentication.
+ */
+public interface AuthorCredentials {
+
+    Long getId();
+
+    String getUsername();
+
+    String getPassword();
+
+    Role getRole();
+}
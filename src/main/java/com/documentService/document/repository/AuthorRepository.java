@@ -2,13 +2,22 @@ package com.documentService.document.repository;
 
 import com.documentService.document.model.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
     Optional<Author> findByUsername(String username);
 
+    Optional<AuthorCredentials> findCredentialsByUsername(String username);
+
+    @Query("select a.id from Author a where a.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,13 @@
+package com.documentService.document.repository;
+
+import java.util.Set;
+
+/**
+ * Projection of a document reduced to its id and the ids it references.
+ */
+public interface DocumentReferences {
+
+    Long getId();
+
+    Set<Long> getReferenceIds();
+}
@@ -1,14 +1,112 @@
 package com.documentService.document.repository;
 
 import com.documentService.document.model.Document;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
 
     List<Document> findAllByAuthorId(Long id);
 
-}
\ No newline at end of file
+    @Query("select d.id from Document d where d.authorId = :authorId")
+    Set<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    @Query("select d.id from Document d where d.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset pagination: returns documents with id strictly greater than the given cursor, ordered by id.
+     * Only the page size given in the pageable is loaded, independent of the table size.
+     */
+    List<Document> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("select d.id as id, d.title as title, d.authorId as authorId, d.referenceIds as referenceIds, " +
+            "octet_length(d.body) as bodyLength from Document d order by d.id")
+    List<DocumentSummary> findAllSummaries();
+
+    @Query("select d.id as id, d.title as title, d.authorId as authorId, d.referenceIds as referenceIds, " +
+            "octet_length(d.body) as bodyLength from Document d where d.authorId = :authorId order by d.id")
+    List<DocumentSummary> findAllSummariesByAuthorId(@Param("authorId") Long authorId);
+
+    @Query("select d.id as id, d.title as title, d.authorId as authorId, d.referenceIds as referenceIds, " +
+            "octet_length(d.body) as bodyLength from Document d where d.id in :ids order by d.id")
+    List<DocumentSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Returns the ids of all documents whose referenceIds contain the given id,
+     * served by the GIN index on reference_ids.
+     */
+    @Query(value = "select d.id from document d where d.reference_ids @> jsonb_build_array(:id)", nativeQuery = true)
+    List<Long> findIdsReferencing(@Param("id") Long id);
+
+    /**
+     * Summary variant of {@link #findAllByIdGreaterThanOrderByIdAsc(Long, Pageable)}.
+     */
+    @Query("select d.id as id, d.title as title, d.authorId as authorId, d.referenceIds as referenceIds, " +
+            "octet_length(d.body) as bodyLength from Document d where d.id > :afterId order by d.id")
+    List<DocumentSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Full text search over title and body, served by the GIN index on search_vector. The query uses the
+     * web search syntax (quoted phrases, or, -excluded). Results are ordered by rank, snippets are only
+     * built for the rows of the requested page.
+     */
+    @Query(value = "select r.id as id, r.title as title, r.author_id as \"authorId\", r.score as score, " +
+            "ts_headline('english', r.body, r.query, " +
+            "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=30, MinWords=10') as snippet " +
+            "from (select d.id, d.title, d.author_id, d.body, q.query, ts_rank_cd(d.search_vector, q.query) as score " +
+            "      from document d, websearch_to_tsquery('english', :q) as q(query) " +
+            "      where d.search_vector @@ q.query " +
+            "      order by score desc, d.id limit :limit offset :offset) r " +
+            "order by r.score desc, r.id", nativeQuery = true)
+    List<DocumentSearchResult> search(@Param("q") String query, @Param("offset") long offset, @Param("limit") int limit);
+
+    /**
+     * Streams all documents through a server side cursor. Must be consumed inside a transaction
+     * and closed afterwards, rows are fetched from the database in chunks of the fetch size.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from Document d order by d.id")
+    Stream<Document> streamAll();
+
+    /**
+     * Streams the references of all documents, see {@link #streamAll()}.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d.id as id, d.referenceIds as referenceIds from Document d order by d.id")
+    Stream<DocumentReferences> streamAllReferences();
+
+    /**
+     * Streams the id, title and body of all documents, see {@link #streamAll()}.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d.id as id, d.title as title, d.body as body from Document d order by d.id")
+    Stream<DocumentText> streamAllTexts();
+
+    @Query("select d.id as id, d.referenceIds as referenceIds from Document d where d.id in :ids")
+    List<DocumentReferences> findReferencesByIdIn(@Param("ids") Collection<Long> ids);
+
+}
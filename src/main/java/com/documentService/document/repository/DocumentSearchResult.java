@@ -0,0 +1,18 @@
+package com.documentService.document.repository;
+
+/**
+ * Projection of a document matching a full text search, with its rank and a highlighted
+ * snippet of the body instead of the body itself.
+ */
+public interface DocumentSearchResult {
+
+    Long getId();
+
+    String getTitle();
+
+    Long getAuthorId();
+
+    Float getScore();
+
+    String getSnippet();
+}
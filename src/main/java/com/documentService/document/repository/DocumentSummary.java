@@ -0,0 +1,25 @@
+package com.documentService.document.repository;
+
+import java.util.Set;
+
+/**
+ * Projection of a document without its body. Used by list queries so the body column
+ * never has to be transferred, only its length.
+ * The length is taken with octet_length, which postgres answers from the header of the stored value
+ * without reading or decompressing a body kept out of line.
+ */
+public interface DocumentSummary {
+
+    Long getId();
+
+    String getTitle();
+
+    Long getAuthorId();
+
+    Set<Long> getReferenceIds();
+
+    /**
+     * Length of the body in bytes of its UTF-8 encoding, not in characters
+     */
+    Integer getBodyLength();
+}
@@ -0,0 +1,14 @@
+package com.documentService.document.repository;
+
+/**
+ * Projection of a document reduced to its text. The rows are not managed entities, so streaming them
+ * does not fill the persistence context.
+ */
+public interface DocumentText {
+
+    Long getId();
+
+    String getTitle();
+
+    String getBody();
+}
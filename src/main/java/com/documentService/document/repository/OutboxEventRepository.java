@@ -0,0 +1,29 @@
+package com.documentService.document.repository;
+
+import com.documentService.document.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Takes the relay lock for the current transaction. Only one instance relays at a time,
+     * otherwise batches sent in parallel could reorder events having the same key.
+     */
+    @Query(value = "select pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryLockRelay(@Param("lockId") long lockId);
+
+    /**
+     * Locks the oldest pending events, in the order they were stored, using the index on (created_at, id).
+     * Rows locked by another transaction are skipped.
+     */
+    @Query(value = "select * from outbox_event order by created_at, id limit :limit for update skip locked",
+            nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+}
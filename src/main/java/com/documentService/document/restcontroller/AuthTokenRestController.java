@@ -0,0 +1,41 @@
+package com.documentService.document.restcontroller;
+
+import com.documentService.document.auth.TokenService;
+import com.documentService.document.restcontroller.dto.TokenDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@AllArgsConstructor
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+@Tag(name = "Authentication", description = "Operations pertaining to token authentication")
+public class AuthTokenRestController {
+
+    private final TokenService tokenService;
+
+    @PostMapping("/token")
+    @Operation(summary = "Get an access token",
+            description = "Exchange basic auth credentials for a signed token to be sent as bearer token on later requests")
+    @ApiResponse(responseCode = "200", description = "Token issued")
+    @ApiResponse(responseCode = "403", description = "Forbidden if the request is not authenticated with username and password")
+    public ResponseEntity<TokenDTO> issueToken(Authentication authentication) {
+        // a token must not be usable to get a fresh one, otherwise it could be extended forever
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        String token = tokenService.issueToken(authentication);
+        return ResponseEntity.ok(new TokenDTO(token, "Bearer", tokenService.getTtl().toSeconds()));
+    }
+}
@@ -0,0 +1,319 @@
+package com.documentService.document.restcontroller;
+
+import com.documentService.document.model.Document;
+import com.documentService.document.restcontroller.dto.DocumentBulkItemDTO;
+import com.documentService.document.restcontroller.dto.DocumentBulkItemDTO.Action;
+import com.documentService.document.restcontroller.dto.DocumentBulkResultDTO;
+import com.documentService.document.restcontroller.dto.DocumentDTO;
+import com.documentService.document.service.AuthorService;
+import com.documentService.document.service.DocumentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk variant of the document write endpoints, for import jobs writing thousands of documents.
+ * All authors and documents referenced by a request are checked with one query each, and the
+ * writes are done in batches of up to WRITE_CHUNK_SIZE operations, each batch in its own transaction.
+ * If a batch fails, its operations are retried one by one, so every operation gets its own result
+ * and one failing operation does not fail the others. The request is not atomic: saves are committed
+ * before deletes, and results tell which operations were applied.
+ */
+@RestController
+@RequestMapping("/api/v1/documents")
+@AllArgsConstructor
+@Tag(name = "Documents", description = "Operations pertaining to documents")
+public class DocumentBulkRestController {
+
+    private static final int MAX_BULK_SIZE = 10000;
+    private static final int WRITE_CHUNK_SIZE = 500;
+
+    private final DocumentService documentService;
+    private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBulkRestController.class);
+
+    @PostMapping(value = "/_bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create, update or delete documents in bulk",
+            description = "Apply a json array of operations and return the result of each operation in the same order. " +
+                    "Operations are applied independently, not atomically: saves are applied before deletes and " +
+                    "the status of each result tells whether its operation was applied")
+    @ApiResponse(responseCode = "200", description = "Operations processed, see the status of each result")
+    @ApiResponse(responseCode = "400", description = "Bad request if there are too many operations")
+    public ResponseEntity<List<DocumentBulkResultDTO>> bulkDocuments(@RequestBody List<DocumentBulkItemDTO> items) {
+        if (items.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(processBulk(items));
+    }
+
+    @PostMapping(value = "/_bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create, update or delete documents in bulk from newline delimited json",
+            description = "Same as the json variant, with one operation per line")
+    @ApiResponse(responseCode = "200", description = "Operations processed, see the status of each result")
+    @ApiResponse(responseCode = "400", description = "Bad request if a line is malformed or there are too many operations")
+    public ResponseEntity<List<DocumentBulkResultDTO>> bulkDocumentsNdjson(InputStream body) throws IOException {
+        List<DocumentBulkItemDTO> items = new ArrayList<>();
+
+        try (MappingIterator<DocumentBulkItemDTO> iterator =
+                     objectMapper.readerFor(DocumentBulkItemDTO.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (items.size() == MAX_BULK_SIZE) {
+                    return ResponseEntity.badRequest().body(null);
+                }
+                items.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        return ResponseEntity.ok(processBulk(items));
+    }
+
+    private List<DocumentBulkResultDTO> processBulk(List<DocumentBulkItemDTO> items) {
+        DocumentBulkResultDTO[] results = new DocumentBulkResultDTO[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            String error = validate(items.get(i));
+            if (error != null) {
+                results[i] = new DocumentBulkResultDTO(i, idOf(items.get(i)), HttpStatus.BAD_REQUEST.value(), error);
+            }
+        }
+
+        // one query for all authors, one for all existing documents and one for all referenced documents of the request
+        Set<Long> authorIds = new HashSet<>();
+        Set<Long> documentIds = new HashSet<>();
+        Set<Long> referenceIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] == null) {
+                DocumentBulkItemDTO item = items.get(i);
+                if (item.getDocument() != null) {
+                    authorIds.add(item.getDocument().getAuthorId());
+                    if (item.getDocument().getReferenceIds() != null) {
+                        item.getDocument().getReferenceIds().stream().filter(Objects::nonNull).forEach(referenceIds::add);
+                    }
+                }
+                if (item.getAction() != Action.CREATE) {
+                    documentIds.add(item.getId());
+                }
+            }
+        }
+        Set<Long> existingAuthorIds = authorService.findExistingAuthorIds(authorIds);
+        Map<Long, Document> existingDocuments = documentIds.isEmpty() ? Collections.emptyMap() :
+                documentService.findAllDocumentsById(documentIds).stream()
+                        .collect(Collectors.toMap(Document::getId, Function.identity()));
+        Set<Long> existingReferenceIds = documentService.findExistingDocumentIds(referenceIds);
+        // documents deleted by this request cannot be referenced by its saves, the saves are applied first
+        Set<Long> deletedIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] == null && items.get(i).getAction() == Action.DELETE
+                    && existingDocuments.containsKey(items.get(i).getId())) {
+                deletedIds.add(items.get(i).getId());
+            }
+        }
+
+        List<Integer> saveIndexes = new ArrayList<>();
+        List<Document> documentsToSave = new ArrayList<>();
+        List<Integer> deleteIndexes = new ArrayList<>();
+        List<Long> documentsToDelete = new ArrayList<>();
+        Set<Long> seenDocumentIds = new HashSet<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            DocumentBulkItemDTO item = items.get(i);
+
+            if (item.getAction() != Action.CREATE) {
+                if (!existingDocuments.containsKey(item.getId())) {
+                    results[i] = new DocumentBulkResultDTO(i, item.getId(), HttpStatus.NOT_FOUND.value(), "Document not found");
+                    continue;
+                }
+                if (!seenDocumentIds.add(item.getId())) {
+                    results[i] = new DocumentBulkResultDTO(i, item.getId(), HttpStatus.BAD_REQUEST.value(),
+                            "Document is already modified by another operation of this request");
+                    continue;
+                }
+            }
+            if (item.getDocument() != null && !existingAuthorIds.contains(item.getDocument().getAuthorId())) {
+                results[i] = new DocumentBulkResultDTO(i, item.getId(), HttpStatus.BAD_REQUEST.value(), "Author not found");
+                continue;
+            }
+            if (item.getDocument() != null && item.getDocument().getReferenceIds() != null
+                    && item.getDocument().getReferenceIds().stream().anyMatch(referenceId ->
+                    referenceId != null && !referenceId.equals(item.getId()) && !existingReferenceIds.contains(referenceId))) {
+                results[i] = new DocumentBulkResultDTO(i, item.getId(), HttpStatus.BAD_REQUEST.value(),
+                        "Referenced document not found");
+                continue;
+            }
+            if (item.getDocument() != null && item.getDocument().getReferenceIds() != null
+                    && item.getDocument().getReferenceIds().stream().anyMatch(deletedIds::contains)) {
+                results[i] = new DocumentBulkResultDTO(i, item.getId(), HttpStatus.BAD_REQUEST.value(),
+                        "Referenced document is deleted by this request");
+                continue;
+            }
+
+            switch (item.getAction()) {
+                case CREATE -> {
+                    documentsToSave.add(toDocument(new Document(), item.getDocument()));
+                    saveIndexes.add(i);
+                }
+                case UPDATE -> {
+                    documentsToSave.add(toDocument(existingDocuments.get(item.getId()), item.getDocument()));
+                    saveIndexes.add(i);
+                }
+                case DELETE -> {
+                    documentsToDelete.add(item.getId());
+                    deleteIndexes.add(i);
+                }
+            }
+        }
+
+        saveInChunks(items, saveIndexes, documentsToSave, results);
+        deleteInChunks(items, deleteIndexes, documentsToDelete, results);
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Saves the documents chunk by chunk. The operations of a failed chunk are retried one by one,
+     * starting from the request again since the failed attempt may have modified the documents.
+     */
+    private void saveInChunks(List<DocumentBulkItemDTO> items, List<Integer> saveIndexes,
+                              List<Document> documentsToSave, DocumentBulkResultDTO[] results) {
+        for (int from = 0; from < saveIndexes.size(); from += WRITE_CHUNK_SIZE) {
+            int to = Math.min(from + WRITE_CHUNK_SIZE, saveIndexes.size());
+            List<Integer> chunkIndexes = saveIndexes.subList(from, to);
+            try {
+                List<Document> savedDocuments = documentService.saveAll(documentsToSave.subList(from, to));
+                for (int k = 0; k < chunkIndexes.size(); k++) {
+                    int index = chunkIndexes.get(k);
+                    results[index] = toSaveResult(items.get(index), index, savedDocuments.get(k));
+                }
+            } catch (Exception e) {
+                logger.warn("bulk save of {} documents failed, saving them one by one", chunkIndexes.size(), e);
+                for (int index : chunkIndexes) {
+                    DocumentBulkItemDTO item = items.get(index);
+                    Document document = new Document();
+                    document.setId(item.getAction() == Action.UPDATE ? item.getId() : null);
+                    try {
+                        Document savedDocument = documentService.saveDocument(toDocument(document, item.getDocument()));
+                        results[index] = toSaveResult(item, index, savedDocument);
+                    } catch (Exception itemException) {
+                        results[index] = toFailedResult(index, item.getId(), itemException, "Unable to save document");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the documents chunk by chunk, the operations of a failed chunk are retried one by one
+     */
+    private void deleteInChunks(List<DocumentBulkItemDTO> items, List<Integer> deleteIndexes,
+                                List<Long> documentsToDelete, DocumentBulkResultDTO[] results) {
+        for (int from = 0; from < deleteIndexes.size(); from += WRITE_CHUNK_SIZE) {
+            int to = Math.min(from + WRITE_CHUNK_SIZE, deleteIndexes.size());
+            List<Integer> chunkIndexes = deleteIndexes.subList(from, to);
+            try {
+                documentService.deleteAll(documentsToDelete.subList(from, to));
+                chunkIndexes.forEach(index -> results[index] = new DocumentBulkResultDTO(index, items.get(index).getId(),
+                        HttpStatus.OK.value(), null));
+            } catch (Exception e) {
+                logger.warn("bulk delete of {} documents failed, deleting them one by one", chunkIndexes.size(), e);
+                for (int index : chunkIndexes) {
+                    Long id = items.get(index).getId();
+                    try {
+                        documentService.deleteDocument(id);
+                        results[index] = new DocumentBulkResultDTO(index, id, HttpStatus.OK.value(), null);
+                    } catch (Exception itemException) {
+                        results[index] = toFailedResult(index, id, itemException, "Unable to delete document");
+                    }
+                }
+            }
+        }
+    }
+
+    private static DocumentBulkResultDTO toSaveResult(DocumentBulkItemDTO item, int index, Document savedDocument) {
+        HttpStatus status = item.getAction() == Action.CREATE ? HttpStatus.CREATED : HttpStatus.OK;
+        return new DocumentBulkResultDTO(index, savedDocument.getId(), status.value(), null);
+    }
+
+    /**
+     * Maps the failure of a single operation to the status the equivalent single request would have returned
+     */
+    private static DocumentBulkResultDTO toFailedResult(int index, Long id, Exception e, String message) {
+        if (e instanceof NoSuchElementException) {
+            return new DocumentBulkResultDTO(index, id, HttpStatus.NOT_FOUND.value(), "Document not found");
+        }
+        if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            return new DocumentBulkResultDTO(index, id, HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return new DocumentBulkResultDTO(index, id, HttpStatus.CONFLICT.value(), "Document violates a constraint");
+        }
+        logger.error("bulk operation {} on document {} failed", index, id, e);
+        return new DocumentBulkResultDTO(index, id, HttpStatus.INTERNAL_SERVER_ERROR.value(), message);
+    }
+
+    /**
+     * Checks a single operation, returns the error message or null if the operation is valid
+     */
+    private String validate(DocumentBulkItemDTO item) {
+        if (item == null || item.getAction() == null) {
+            return "action must be one of CREATE, UPDATE, DELETE";
+        }
+        if (item.getAction() != Action.CREATE && item.getId() == null) {
+            return "id cannot be null";
+        }
+        if (item.getAction() != Action.DELETE) {
+            if (item.getDocument() == null) {
+                return "document cannot be null";
+            }
+            Set<ConstraintViolation<DocumentDTO>> violations = validator.validate(item.getDocument());
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            }
+        }
+        return null;
+    }
+
+    private static Long idOf(DocumentBulkItemDTO item) {
+        return item == null ? null : item.getId();
+    }
+
+    private static Document toDocument(Document document, DocumentDTO documentDTO) {
+        document.setTitle(documentDTO.getTitle());
+        document.setBody(documentDTO.getBody());
+        document.setAuthorId(documentDTO.getAuthorId());
+        document.setReferenceIds(documentDTO.getReferenceIds());
+        return document;
+    }
+}
@@ -2,18 +2,34 @@ package com.documentService.document.restcontroller;
 
 import com.documentService.document.model.Document;
 import com.documentService.document.model.Author;
+import com.documentService.document.repository.DocumentSearchResult;
+import com.documentService.document.repository.DocumentSummary;
 import com.documentService.document.restcontroller.dto.DocumentDTO;
+import com.documentService.document.restcontroller.dto.DocumentNeighbourDTO;
+import com.documentService.document.restcontroller.dto.DocumentPageDTO;
+import com.documentService.document.restcontroller.dto.DocumentSearchResultDTO;
+import com.documentService.document.restcontroller.dto.DocumentSummaryDTO;
+import com.documentService.document.service.DocumentReferenceGraph;
 import com.documentService.document.service.DocumentService;
 import com.documentService.document.service.AuthorService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,8 +38,17 @@ import java.util.stream.Collectors;
 @Tag(name = "Documents", description = "Operations pertaining to documents")
 public class DocumentRestController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_REFERENCE_DEPTH = 10;
+    private static final int DEFAULT_REFERENCE_RESULTS = 1000;
+    private static final int MAX_REFERENCE_RESULTS = 10000;
+
     private final DocumentService documentService;
     private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @Operation(summary = "Get all documents", description = "Retrieve a list of all documents")
@@ -35,6 +60,114 @@ public class DocumentRestController {
         return ResponseEntity.ok(documents);
     }
 
+    @GetMapping(params = "fields=summary")
+    @Operation(summary = "Get all document summaries",
+            description = "Retrieve a list of all documents without their body, only the body length in bytes is returned")
+    public ResponseEntity<List<DocumentSummaryDTO>> getAllDocumentSummaries() {
+        List<DocumentSummaryDTO> documents = documentService.findAllDocumentSummaries()
+                .stream()
+                .map(this::toSummaryDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(documents);
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Get documents page by page",
+            description = "Retrieve documents ordered by id using a cursor. Pass the returned nextCursor as 'after' to get the next page")
+    @ApiResponse(responseCode = "200", description = "Page of documents")
+    @ApiResponse(responseCode = "400", description = "Bad request if limit or cursor is invalid")
+    public ResponseEntity<DocumentPageDTO<DocumentDTO>> getDocumentsPage(
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String after) {
+
+        Long afterId = decodeCursor(after);
+        if (limit < 1 || limit > MAX_PAGE_SIZE || afterId == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        // one extra row tells whether there is a next page without a count query
+        List<DocumentDTO> documents = documentService.findDocumentsAfter(afterId, limit + 1)
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(toPage(documents, limit, DocumentDTO::getId));
+    }
+
+    @GetMapping(value = "/page", params = "fields=summary")
+    @Operation(summary = "Get document summaries page by page",
+            description = "Same as the paged listing of documents but without their body")
+    @ApiResponse(responseCode = "200", description = "Page of document summaries")
+    @ApiResponse(responseCode = "400", description = "Bad request if limit or cursor is invalid")
+    public ResponseEntity<DocumentPageDTO<DocumentSummaryDTO>> getDocumentSummariesPage(
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String after) {
+
+        Long afterId = decodeCursor(after);
+        if (limit < 1 || limit > MAX_PAGE_SIZE || afterId == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        List<DocumentSummaryDTO> documents = documentService.findDocumentSummariesAfter(afterId, limit + 1)
+                .stream()
+                .map(this::toSummaryDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(toPage(documents, limit, DocumentSummaryDTO::getId));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search documents",
+            description = "Full text search over title and body, best matches first. Supports quoted phrases, "
+                    + "'or' and '-' to exclude words. Pass the returned nextCursor as 'after' to get the next page")
+    @ApiResponse(responseCode = "200", description = "Page of matching documents with highlighted snippets")
+    @ApiResponse(responseCode = "400", description = "Bad request if the query is empty or limit or cursor is invalid")
+    public ResponseEntity<DocumentPageDTO<DocumentSearchResultDTO>> searchDocuments(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String after) {
+
+        // for search results the cursor is the offset of the next page, ranks are not unique enough for keysets
+        Long offset = decodeCursor(after);
+        if (q.isBlank() || limit < 1 || limit > MAX_SEARCH_PAGE_SIZE || offset == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+
+        List<DocumentSearchResultDTO> results = documentService.searchDocuments(q, offset, limit + 1)
+                .stream()
+                .map(this::toSearchResultDTO)
+                .collect(Collectors.toList());
+        if (results.size() <= limit) {
+            return ResponseEntity.ok(new DocumentPageDTO<>(results, null));
+        }
+        return ResponseEntity.ok(new DocumentPageDTO<>(results.subList(0, limit), encodeCursor(offset + limit)));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all documents",
+            description = "Stream all documents as newline delimited json, one document per line")
+    @ApiResponse(responseCode = "200", description = "Documents streamed")
+    public ResponseEntity<StreamingResponseBody> exportDocuments() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (generator) {
+                documentService.exportDocuments(document -> {
+                    try {
+                        generator.writeObject(toDTO(document));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get document by ID", description = "Retrieve a document by its ID")
     @ApiResponse(responseCode = "200", description = "Document found")
@@ -45,6 +178,100 @@ public class DocumentRestController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/referenced-by")
+    @Operation(summary = "Get documents referencing a document",
+            description = "Retrieve summaries of all documents which contain the given document in their referenceIds")
+    @ApiResponse(responseCode = "200", description = "Referencing documents found")
+    @ApiResponse(responseCode = "404", description = "Document not found")
+    public ResponseEntity<List<DocumentSummaryDTO>> getReferencingDocuments(@PathVariable Long id) {
+        if (!documentService.existsDocument(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<DocumentSummaryDTO> documents = documentService.findDocumentsReferencing(id)
+                .stream()
+                .map(this::toSummaryDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(documents);
+    }
+
+    @GetMapping("/{id}/references/neighbours")
+    @Operation(summary = "Get documents within some references of a document",
+            description = "Retrieve the ids of at most limit documents reachable in at most depth references, with their "
+                    + "distance, closest first. Direction is outgoing (referenced documents), incoming (referencing documents) or both")
+    @ApiResponse(responseCode = "200", description = "Reachable documents ordered by distance")
+    @ApiResponse(responseCode = "400", description = "Bad request if depth, limit or direction is invalid")
+    @ApiResponse(responseCode = "404", description = "Document not found")
+    public ResponseEntity<List<DocumentNeighbourDTO>> getReferenceNeighbours(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int depth,
+            @RequestParam(defaultValue = "" + DEFAULT_REFERENCE_RESULTS) int limit,
+            @RequestParam(defaultValue = "outgoing") String direction) {
+
+        DocumentReferenceGraph.Direction parsedDirection = parseDirection(direction);
+        if (depth < 1 || depth > MAX_REFERENCE_DEPTH || limit < 1 || limit > MAX_REFERENCE_RESULTS
+                || parsedDirection == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (!documentService.existsDocument(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<DocumentNeighbourDTO> neighbours = documentService.findReferenceNeighbours(id, depth, parsedDirection, limit)
+                .stream()
+                .map(neighbour -> new DocumentNeighbourDTO(neighbour.id(), neighbour.distance()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(neighbours);
+    }
+
+    @GetMapping("/{id}/references/path/{targetId}")
+    @Operation(summary = "Get the shortest reference path between documents",
+            description = "Retrieve the ids of the documents along a shortest path of references from the document "
+                    + "to the target, both included. The list is empty if the target cannot be reached")
+    @ApiResponse(responseCode = "200", description = "Shortest path found or empty")
+    @ApiResponse(responseCode = "400", description = "Bad request if direction is invalid")
+    @ApiResponse(responseCode = "404", description = "Document or target not found")
+    public ResponseEntity<List<Long>> getReferencePath(
+            @PathVariable Long id,
+            @PathVariable Long targetId,
+            @RequestParam(defaultValue = "outgoing") String direction) {
+
+        DocumentReferenceGraph.Direction parsedDirection = parseDirection(direction);
+        if (parsedDirection == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (!documentService.existsDocument(id) || !documentService.existsDocument(targetId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(documentService.findReferencePath(id, targetId, parsedDirection));
+    }
+
+    @GetMapping("/{id}/references/closure")
+    @Operation(summary = "Get all documents transitively referenced by a document",
+            description = "Retrieve the ids of all documents reachable from the document over any number of references. "
+                    + "Fails if more than limit documents are reachable, use the neighbours with a depth instead")
+    @ApiResponse(responseCode = "200", description = "Reachable document ids ordered by id")
+    @ApiResponse(responseCode = "400", description = "Bad request if limit or direction is invalid or more than limit documents are reachable")
+    @ApiResponse(responseCode = "404", description = "Document not found")
+    public ResponseEntity<long[]> getReferenceClosure(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "" + DEFAULT_REFERENCE_RESULTS) int limit,
+            @RequestParam(defaultValue = "outgoing") String direction) {
+
+        DocumentReferenceGraph.Direction parsedDirection = parseDirection(direction);
+        if (limit < 1 || limit > MAX_REFERENCE_RESULTS || parsedDirection == null) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (!documentService.existsDocument(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return documentService.findReferenceClosure(id, parsedDirection, limit)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.badRequest().body(null));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new document", description = "Add a new document to the system")
     @ApiResponse(responseCode = "201", description = "Document created")
@@ -105,6 +332,60 @@ public class DocumentRestController {
     }
 
 
+    /**
+     * Builds a page from up to limit + 1 fetched items, the extra item only signals that a next page exists.
+     */
+    private static <T> DocumentPageDTO<T> toPage(List<T> fetched, int limit, Function<T, Long> idExtractor) {
+        if (fetched.size() <= limit) {
+            return new DocumentPageDTO<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new DocumentPageDTO<>(items, encodeCursor(idExtractor.apply(items.get(limit - 1))));
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the cursor returned by a previous page. A missing cursor starts from the beginning,
+     * null is returned if the cursor is malformed.
+     */
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long id = Long.parseLong(decoded);
+            return id < 0 ? null : id;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the direction of a reference traversal, case insensitive. Returns null if it is unknown.
+     */
+    private static DocumentReferenceGraph.Direction parseDirection(String direction) {
+        try {
+            return DocumentReferenceGraph.Direction.valueOf(direction.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private DocumentSummaryDTO toSummaryDTO(DocumentSummary summary) {
+        return new DocumentSummaryDTO(summary.getId(), summary.getTitle(), summary.getAuthorId(),
+                summary.getReferenceIds(), summary.getBodyLength());
+    }
+
+    private DocumentSearchResultDTO toSearchResultDTO(DocumentSearchResult result) {
+        return new DocumentSearchResultDTO(result.getId(), result.getTitle(), result.getAuthorId(),
+                result.getScore(), result.getSnippet());
+    }
+
     private DocumentDTO toDTO(Document document) {
         DocumentDTO dto = new DocumentDTO();
         dto.setId(document.getId());
@@ -7,6 +7,7 @@ import com.documentService.document.messaging.events.DeleteAuthorEvent;
 import com.documentService.document.messaging.events.DeleteDocumentEvent;
 import com.documentService.document.restcontroller.dto.AuthorWriteDTO;
 import com.documentService.document.restcontroller.dto.DocumentDTO;
+import com.documentService.document.service.AuthorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
@@ -22,6 +23,9 @@ public class EventTriggerRestController {
     @Autowired
     private KafkaEventPublisher publisher;
 
+    @Autowired
+    private AuthorService authorService;
+
     @Operation(summary = "Create a new author event",
             description = "Publishes an event to create a new author.",
             responses = {
@@ -67,6 +71,8 @@ public class EventTriggerRestController {
     @DeleteMapping("/delete-author/{authorId}")
     public void deleteAuthor(@PathVariable long authorId) {
         DeleteAuthorEvent event = new DeleteAuthorEvent(authorId);
+        // keyed like the create of the author, see DeleteAuthorEvent
+        authorService.findAuthorById(authorId).ifPresent(author -> event.setUsername(author.getUsername()));
 
         publisher.publish(event);
     }
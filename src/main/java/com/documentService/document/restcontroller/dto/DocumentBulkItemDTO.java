@@ -0,0 +1,25 @@
+package com.documentService.document.restcontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One operation of a bulk request. id is required for UPDATE and DELETE,
+ * document is required for CREATE and UPDATE.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentBulkItemDTO {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private Action action;
+    private Long id;
+    private DocumentDTO document;
+}
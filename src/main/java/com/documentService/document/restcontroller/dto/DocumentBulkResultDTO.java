@@ -0,0 +1,20 @@
+package com.documentService.document.restcontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one bulk operation, index is the position of the operation in the request
+ * and status is the http status the equivalent single request would have returned.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentBulkResultDTO {
+
+    private int index;
+    private Long id;
+    private int status;
+    private String error;
+}
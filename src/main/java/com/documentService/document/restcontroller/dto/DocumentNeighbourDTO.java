@@ -0,0 +1,15 @@
+package com.documentService.document.restcontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentNeighbourDTO {
+
+    private Long id;
+    // number of references between the requested document and this one
+    private Integer distance;
+}
@@ -0,0 +1,20 @@
+package com.documentService.document.restcontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor based listing. nextCursor is null when there are no more items,
+ * otherwise it can be passed as 'after' parameter to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentPageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.documentService.document.restcontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchResultDTO {
+
+    private Long id;
+    private String title;
+    private Long authorId;
+    private Float score;
+    // fragments of the body with the matching words enclosed in <mark> tags
+    private String snippet;
+}
@@ -0,0 +1,20 @@
+package com.documentService.document.restcontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSummaryDTO {
+
+    private Long id;
+    private String title;
+    private Long authorId;
+    private Set<Long> referenceIds;
+    // length of the body in bytes of its UTF-8 encoding, not in characters
+    private Integer bodyLength;
+}
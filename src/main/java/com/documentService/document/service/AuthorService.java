@@ -1,5 +1,6 @@
 package com.documentService.document.service;
 
+import com.documentService.document.auth.AuthorUserDetailsService;
 import com.documentService.document.messaging.KafkaEventPublisher;
 import com.documentService.document.messaging.events.ServiceUpdateEvent;
 import com.documentService.document.messaging.events.ServiceUpdateType;
@@ -11,8 +12,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @AllArgsConstructor
@@ -20,6 +25,8 @@ public class AuthorService {
 
     private final AuthorRepository authorRepository;
     private final KafkaEventPublisher publisher;
+    private final DocumentCache documentCache;
+    private final AuthorUserDetailsService userDetailsService;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthorService.class);
 
@@ -31,11 +38,22 @@ public class AuthorService {
         return authorRepository.findById(id);
     }
 
+    /**
+     * Returns the subset of the given ids which belong to an existing author, using a single query.
+     */
+    public Set<Long> findExistingAuthorIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return authorRepository.findExistingIds(ids);
+    }
+
     @Transactional
     public Author saveAuthor(Author author) {
         boolean isNewAuthor = author.getId() == null;
 
         Author savedAuthor = authorRepository.save(author);
+        userDetailsService.invalidate(savedAuthor.getId());
 
         ServiceUpdateEvent event = new ServiceUpdateEvent();
         event.setUpdateType(isNewAuthor ? ServiceUpdateType.AUTHOR_CREATED : ServiceUpdateType.AUTHOR_UPDATED);
@@ -47,9 +65,36 @@ public class AuthorService {
         return savedAuthor;
     }
 
+    /**
+     * Saves several authors in one transaction.
+     */
+    @Transactional
+    public List<Author> saveAll(List<Author> authors) {
+        Set<Author> newAuthors = Collections.newSetFromMap(new IdentityHashMap<>());
+        authors.stream().filter(author -> author.getId() == null).forEach(newAuthors::add);
+
+        List<Author> savedAuthors = authorRepository.saveAll(authors);
+
+        for (Author savedAuthor : savedAuthors) {
+            userDetailsService.invalidate(savedAuthor.getId());
+
+            ServiceUpdateEvent event = new ServiceUpdateEvent();
+            event.setUpdateType(newAuthors.contains(savedAuthor) ? ServiceUpdateType.AUTHOR_CREATED : ServiceUpdateType.AUTHOR_UPDATED);
+            event.setAuthorId(savedAuthor.getId());
+            publisher.publish(event);
+        }
+
+        logger.info("saved {} authors", savedAuthors.size());
+
+        return savedAuthors;
+    }
+
     @Transactional
     public void deleteAuthor(Long id) {
         authorRepository.deleteById(id);
+        userDetailsService.invalidate(id);
+        // the database detaches the documents of the author, cached copies still carry the old author id
+        documentCache.invalidateAll();
 
         ServiceUpdateEvent event = new ServiceUpdateEvent();
         event.setUpdateType(ServiceUpdateType.AUTHOR_DELETED);
@@ -0,0 +1,128 @@
+package com.documentService.document.service;
+
+import com.documentService.document.messaging.KafkaEventPublisher;
+import com.documentService.document.messaging.events.ServiceUpdateEvent;
+import com.documentService.document.messaging.events.ServiceUpdateType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class removes references to deleted documents from the documents still holding them.
+ * Deleting a document only records its id in the deleted_document table, in the deleting transaction.
+ * The recorded ids are then processed in the background in batches: one statement claims a batch and
+ * one statement removes all ids of the batch from the referencing documents, found through the GIN index
+ * on reference_ids. The changed documents are announced as updated like any other write.
+ */
+@Component
+public class DanglingReferenceCleaner {
+
+    private static final String ENQUEUE_QUERY = "insert into deleted_document (document_id, deleted_at) " +
+            "select document_id, now() from unnest(?) as document_id on conflict do nothing";
+
+    private static final String CLAIM_QUERY = "delete from deleted_document where document_id in (" +
+            "select document_id from deleted_document order by deleted_at limit ? for update skip locked) " +
+            "returning document_id";
+
+    private static final String PRUNE_QUERY = "update document d set reference_ids = coalesce(" +
+            "(select jsonb_agg(r.value) from jsonb_array_elements(d.reference_ids) r " +
+            "where (r.value #>> '{}')::bigint <> all(?)), '[]'::jsonb) " +
+            "where d.reference_ids @> any(array(select jsonb_build_array(id) from unnest(?) as id)) " +
+            "returning d.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DocumentCache documentCache;
+    private final KafkaEventPublisher publisher;
+    private final Counter prunedDocuments;
+    private final int batchSize;
+
+    private static final Logger logger = LoggerFactory.getLogger(DanglingReferenceCleaner.class);
+
+    public DanglingReferenceCleaner(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    DocumentCache documentCache,
+                                    KafkaEventPublisher publisher,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${document.dangling-references.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.documentCache = documentCache;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.prunedDocuments = Counter.builder("document.references.pruned")
+                .description("Documents from which references to deleted documents were removed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the deleted documents in the current transaction, so their references are removed once it commits
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void enqueue(Collection<Long> deletedIds) {
+        if (deletedIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ENQUEUE_QUERY);
+            statement.setArray(1, connection.createArrayOf("bigint", deletedIds.toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * Processes the recorded deletions batch by batch until none are left. Instances running this
+     * concurrently claim different batches.
+     */
+    @Scheduled(fixedDelayString = "${document.dangling-references.cleanup-interval-ms:10000}")
+    public void pruneDanglingReferences() {
+        Integer claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> pruneBatch());
+        } while (claimed != null && claimed == batchSize);
+    }
+
+    private int pruneBatch() {
+        List<Long> deletedIds = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CLAIM_QUERY);
+            statement.setInt(1, batchSize);
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getLong(1));
+        if (deletedIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> updatedIds = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(PRUNE_QUERY);
+            Array ids = connection.createArrayOf("bigint", deletedIds.toArray());
+            statement.setArray(1, ids);
+            statement.setArray(2, ids);
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getLong(1));
+
+        if (!updatedIds.isEmpty()) {
+            documentCache.invalidateAll(updatedIds);
+            for (Long id : updatedIds) {
+                ServiceUpdateEvent event = new ServiceUpdateEvent();
+                event.setUpdateType(ServiceUpdateType.DOCUMENT_UPDATED);
+                event.setDocumentId(id);
+                publisher.publish(event);
+            }
+            prunedDocuments.increment(updatedIds.size());
+            logger.info("removed references to {} deleted documents from {} documents", deletedIds.size(), updatedIds.size());
+        }
+        return deletedIds.size();
+    }
+}
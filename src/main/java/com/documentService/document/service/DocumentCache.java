@@ -0,0 +1,107 @@
+package com.documentService.document.service;
+
+import com.documentService.document.model.Document;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-process cache for documents read by id. The size is bounded by the total length of the cached
+ * titles and bodies, so a few very large documents cannot fill the heap.
+ * Documents are stored and returned as copies, callers are free to modify what they get.
+ * Entries are invalidated on local writes and, for other instances, through the service-updates topic.
+ */
+@Component
+public class DocumentCache {
+
+    public static final String CACHE_NAME = "documents";
+
+    // rough per entry overhead of the entity and the cache node, in characters
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<Long, Document> cache;
+
+    public DocumentCache(@Value("${document.cache.max-weight}") long maxWeight,
+                         @Value("${document.cache.expire-after-write}") Duration expireAfterWrite,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(DocumentCache::weigh)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached document or loads it with the given loader. Missing documents are not cached.
+     */
+    public Optional<Document> get(Long id, Function<Long, Optional<Document>> loader) {
+        Document cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+
+        Optional<Document> loaded = loader.apply(id);
+        loaded.ifPresent(document -> cache.put(id, copy(document)));
+        return loaded;
+    }
+
+    /**
+     * Removes the document now and, if called inside a transaction, once more when the transaction
+     * completes, so neither a concurrent read of the old row nor a read of uncommitted data which is
+     * then rolled back can leave a stale entry behind.
+     */
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        afterCompletion(() -> cache.invalidate(id));
+    }
+
+    public void invalidateAll(Iterable<Long> ids) {
+        cache.invalidateAll(ids);
+        afterCompletion(() -> cache.invalidateAll(ids));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        afterCompletion(cache::invalidateAll);
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static int weigh(Long id, Document document) {
+        long weight = ENTRY_OVERHEAD
+                + (document.getTitle() == null ? 0 : document.getTitle().length())
+                + (document.getBody() == null ? 0 : document.getBody().length());
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static Document copy(Document document) {
+        return new Document(
+                document.getId(),
+                document.getTitle(),
+                document.getBody(),
+                document.getAuthorId(),
+                document.getReferenceIds() == null ? null : new HashSet<>(document.getReferenceIds())
+        );
+    }
+}
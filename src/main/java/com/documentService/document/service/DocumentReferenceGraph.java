@@ -0,0 +1,356 @@
+package com.documentService.document.service;
+
+import com.documentService.document.model.Document;
+import com.documentService.document.repository.DocumentReferences;
+import com.documentService.document.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process adjacency index of the references between documents, so the reference graph can be walked
+ * without a query per document. For every document the referenced ids and the ids of the documents
+ * referencing it are kept as sorted long arrays.
+ * The graph is built at startup and kept up to date from local writes once they are committed and, for
+ * writes of other instances, from the service-updates topic. References to ids which are not a document
+ * are kept, so they become edges as soon as the document exists, but are never returned by traversals.
+ */
+@Component
+public class DocumentReferenceGraph {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // every document has an entry here, possibly empty, so its key set is the set of documents
+    private final Map<Long, long[]> references = new HashMap<>();
+    private final Map<Long, long[]> referencedBy = new HashMap<>();
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentReferenceGraph.class);
+
+    public DocumentReferenceGraph(DocumentRepository documentRepository, TransactionTemplate transactionTemplate) {
+        this.documentRepository = documentRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public enum Direction {
+        // from a document to the documents it references
+        OUTGOING,
+        // from a document to the documents referencing it
+        INCOMING,
+        BOTH
+    }
+
+    public record Neighbour(long id, int distance) {
+    }
+
+    /**
+     * Builds the graph from the references of all documents, streamed without loading the bodies
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            references.clear();
+            referencedBy.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<DocumentReferences> documents = documentRepository.streamAllReferences()) {
+                    documents.forEach(document -> putDocument(document.getId(), document.getReferenceIds()));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("loaded references of {} documents in {}ms", references.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replaces the references of the documents once the current transaction commits
+     */
+    public void update(Collection<Document> documents) {
+        Map<Long, Set<Long>> updates = new HashMap<>();
+        documents.forEach(document -> updates.put(document.getId(), document.getReferenceIds() == null ?
+                Collections.emptySet() : new HashSet<>(document.getReferenceIds())));
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                updates.forEach(this::putDocument);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes the documents once the current transaction commits
+     */
+    public void remove(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removed.forEach(this::removeDocument);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Replaces the references of the document now, used for writes of other instances announcing the references
+     */
+    public void put(Long id, Set<Long> referenceIds) {
+        lock.writeLock().lock();
+        try {
+            putDocument(id, referenceIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the current references of the document from the database, used for writes of other instances
+     * not announcing the references
+     */
+    public void reload(Long id) {
+        List<DocumentReferences> loaded = documentRepository.findReferencesByIdIn(List.of(id));
+        lock.writeLock().lock();
+        try {
+            if (loaded.isEmpty()) {
+                removeDocument(id);
+            } else {
+                putDocument(id, loaded.get(0).getReferenceIds());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return references.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the documents reachable from the given one in at most depth steps, with their distance.
+     * Ordered by distance, then by id. The document itself is not included. At most limit documents are
+     * returned, the walk stops as soon as they are found, so of the farthest distance returned only some
+     * documents may be included.
+     */
+    public List<Neighbour> neighbours(long id, int depth, Direction direction, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Neighbour> neighbours = new ArrayList<>();
+            Set<Long> visited = new HashSet<>();
+            visited.add(id);
+            long[] level = {id};
+            for (int distance = 1; distance <= depth && level.length > 0; distance++) {
+                long[] next = expand(level, direction, visited, limit + 1);
+                Arrays.sort(next);
+                for (long neighbour : next) {
+                    neighbours.add(new Neighbour(neighbour, distance));
+                }
+                level = next;
+            }
+            return neighbours;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids along a shortest path between the documents, both included, or an empty list if
+     * the target cannot be reached
+     */
+    public List<Long> shortestPath(long from, long to, Direction direction) {
+        lock.readLock().lock();
+        try {
+            if (!references.containsKey(from) || !references.containsKey(to)) {
+                return Collections.emptyList();
+            }
+            if (from == to) {
+                return List.of(from);
+            }
+
+            Map<Long, Long> predecessors = new HashMap<>();
+            predecessors.put(from, from);
+            ArrayDeque<Long> queue = new ArrayDeque<>();
+            queue.add(from);
+            while (!queue.isEmpty()) {
+                long current = queue.poll();
+                for (long[] edges : edges(current, direction)) {
+                    for (long next : edges) {
+                        if (!references.containsKey(next) || predecessors.putIfAbsent(next, current) != null) {
+                            continue;
+                        }
+                        if (next == to) {
+                            LinkedList<Long> path = new LinkedList<>();
+                            for (long step = to; step != from; step = predecessors.get(step)) {
+                                path.addFirst(step);
+                            }
+                            path.addFirst(from);
+                            return new ArrayList<>(path);
+                        }
+                        queue.add(next);
+                    }
+                }
+            }
+            return Collections.emptyList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of all documents reachable from the given one, ordered by id. The document itself is
+     * not included. Returns null if more than limit documents are reachable, the walk stops as soon as this
+     * is known, so the read lock is never held for more than limit documents.
+     */
+    public long[] closure(long id, Direction direction, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<Long> visited = new HashSet<>();
+            visited.add(id);
+            long[] level = {id};
+            // one more than the start and the limit, to tell whether the limit is exceeded
+            int maxVisited = limit + 2;
+            while (level.length > 0 && visited.size() < maxVisited) {
+                level = expand(level, direction, visited, maxVisited);
+            }
+            if (visited.size() > limit + 1) {
+                return null;
+            }
+            visited.remove(id);
+            long[] closure = visited.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(closure);
+            return closure;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the documents adjacent to the given level which are not visited yet and marks them visited.
+     * Stops once maxVisited documents are visited.
+     */
+    private long[] expand(long[] level, Direction direction, Set<Long> visited, int maxVisited) {
+        long[] next = new long[16];
+        int size = 0;
+        for (long current : level) {
+            for (long[] edges : edges(current, direction)) {
+                for (long neighbour : edges) {
+                    if (visited.size() >= maxVisited) {
+                        return Arrays.copyOf(next, size);
+                    }
+                    if (references.containsKey(neighbour) && visited.add(neighbour)) {
+                        if (size == next.length) {
+                            next = Arrays.copyOf(next, size * 2);
+                        }
+                        next[size++] = neighbour;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    private long[][] edges(long id, Direction direction) {
+        return switch (direction) {
+            case OUTGOING -> new long[][]{references.getOrDefault(id, NO_IDS)};
+            case INCOMING -> new long[][]{referencedBy.getOrDefault(id, NO_IDS)};
+            case BOTH -> new long[][]{references.getOrDefault(id, NO_IDS), referencedBy.getOrDefault(id, NO_IDS)};
+        };
+    }
+
+    private void putDocument(Long id, Set<Long> referenceIds) {
+        long[] previous = references.getOrDefault(id, NO_IDS);
+        long[] current = referenceIds == null ? NO_IDS :
+                referenceIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).sorted().distinct().toArray();
+        references.put(id, current);
+
+        for (long target : previous) {
+            if (Arrays.binarySearch(current, target) < 0) {
+                removeEdge(target, id);
+            }
+        }
+        for (long target : current) {
+            if (Arrays.binarySearch(previous, target) < 0) {
+                referencedBy.put(target, insert(referencedBy.getOrDefault(target, NO_IDS), id));
+            }
+        }
+    }
+
+    private void removeDocument(Long id) {
+        long[] previous = references.remove(id);
+        if (previous == null) {
+            return;
+        }
+        // references to the removed document stay in the documents holding them, so referencedBy is kept
+        for (long target : previous) {
+            removeEdge(target, id);
+        }
+    }
+
+    private void removeEdge(long target, long source) {
+        long[] sources = delete(referencedBy.getOrDefault(target, NO_IDS), source);
+        if (sources.length == 0) {
+            referencedBy.remove(target);
+        } else {
+            referencedBy.put(target, sources);
+        }
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = id;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.documentService.document.service;
 
+import com.documentService.document.exception.UnknownReferenceException;
 import com.documentService.document.messaging.KafkaEventPublisher;
 import com.documentService.document.messaging.events.ServiceUpdateEvent;
 import com.documentService.document.messaging.events.ServiceUpdateType;
@@ -7,15 +8,21 @@ import com.documentService.document.model.Author;
 import com.documentService.document.model.Document;
 import com.documentService.document.repository.AuthorRepository;
 import com.documentService.document.repository.DocumentRepository;
+import com.documentService.document.repository.DocumentSearchResult;
+import com.documentService.document.repository.DocumentSummary;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import lombok.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -25,6 +32,11 @@ public class DocumentService {
     private final DocumentRepository documentRepository;
     private final AuthorRepository authorRepository;
     private final KafkaEventPublisher publisher;
+    private final EntityManager entityManager;
+    private final DocumentCache documentCache;
+    private final InvertedDocumentIndex invertedDocumentIndex;
+    private final DocumentReferenceGraph documentReferenceGraph;
+    private final DanglingReferenceCleaner danglingReferenceCleaner;
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
 
@@ -32,30 +44,177 @@ public class DocumentService {
         return documentRepository.findAll();
     }
 
+    /**
+     * Returns at most limit documents with an id greater than afterId, ordered by id.
+     * Used for cursor based pagination, so only one page is held in memory at a time.
+     */
+    public List<Document> findDocumentsAfter(Long afterId, int limit) {
+        Objects.requireNonNull(afterId, "Cursor must not be null");
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return documentRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Same as {@link #findAllDocuments()} but without the document bodies.
+     */
+    public List<DocumentSummary> findAllDocumentSummaries() {
+        return documentRepository.findAllSummaries();
+    }
+
+    public List<DocumentSummary> findDocumentSummariesAfter(Long afterId, int limit) {
+        Objects.requireNonNull(afterId, "Cursor must not be null");
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return documentRepository.findSummariesAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Returns at most limit documents matching the full text query, best matches first, skipping the
+     * first offset results. Served by the in-memory index when it is enabled, else by the database.
+     */
+    public List<DocumentSearchResult> searchDocuments(String query, long offset, int limit) {
+        Objects.requireNonNull(query, "Query must not be null");
+        if (limit < 1 || offset < 0) {
+            throw new IllegalArgumentException("limit must be positive and offset must not be negative");
+        }
+        if (!invertedDocumentIndex.isEnabled()) {
+            return documentRepository.search(query, offset, limit);
+        }
+
+        List<InvertedDocumentIndex.Match> matches = invertedDocumentIndex.search(query, offset, limit);
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Document> documents = documentRepository.findAllById(
+                        matches.stream().map(InvertedDocumentIndex.Match::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Document::getId, document -> document));
+
+        List<DocumentSearchResult> results = new ArrayList<>(matches.size());
+        for (InvertedDocumentIndex.Match match : matches) {
+            Document document = documents.get(match.id());
+            // deleted by another transaction since the index was read
+            if (document != null) {
+                results.add(new IndexedSearchResult(document.getId(), document.getTitle(), document.getAuthorId(),
+                        match.score(), invertedDocumentIndex.snippet(document.getBody(), query)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Passes every document to the given consumer one by one, without loading the whole table.
+     * Each document is detached from the persistence context once consumed so it can be garbage collected.
+     */
+    public void exportDocuments(Consumer<Document> consumer) {
+        Objects.requireNonNull(consumer, "Consumer must not be null");
+
+        try (Stream<Document> documents = documentRepository.streamAll()) {
+            documents.forEach(document -> {
+                consumer.accept(document);
+                entityManager.detach(document);
+            });
+        }
+    }
+
+    public boolean existsDocument(Long id) {
+        Objects.requireNonNull(id, "Document ID must not be null");
+        return documentRepository.existsById(id);
+    }
+
+    /**
+     * Returns which of the given ids belong to existing documents, checked with a single query.
+     */
+    public Set<Long> findExistingDocumentIds(Collection<Long> ids) {
+        Objects.requireNonNull(ids, "Document IDs must not be null");
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return documentRepository.findExistingIds(ids);
+    }
+
     public Optional<Document> findDocumentById(Long id) {
         Objects.requireNonNull(id, "Document ID must not be null");
-        return documentRepository.findById(id);
+        return documentCache.get(id, documentRepository::findById);
+    }
+
+    public List<Document> findAllDocumentsById(Collection<Long> ids) {
+        Objects.requireNonNull(ids, "Document IDs must not be null");
+        return documentRepository.findAllById(ids);
+    }
+
+    /**
+     * Returns summaries of all documents referencing the given document.
+     */
+    public List<DocumentSummary> findDocumentsReferencing(Long id) {
+        Objects.requireNonNull(id, "Document ID must not be null");
+
+        List<Long> referencingIds = documentRepository.findIdsReferencing(id);
+        if (referencingIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return documentRepository.findSummariesByIdIn(referencingIds);
+    }
+
+    /**
+     * Returns the documents reachable from the given document over references in at most depth steps,
+     * with their distance, at most limit of them. Served from the in-memory reference graph.
+     */
+    public List<DocumentReferenceGraph.Neighbour> findReferenceNeighbours(Long id, int depth,
+                                                                           DocumentReferenceGraph.Direction direction,
+                                                                           int limit) {
+        Objects.requireNonNull(id, "Document ID must not be null");
+        Objects.requireNonNull(direction, "Direction must not be null");
+        if (depth < 1 || limit < 1) {
+            throw new IllegalArgumentException("depth and limit must be positive");
+        }
+        return documentReferenceGraph.neighbours(id, depth, direction, limit);
+    }
+
+    /**
+     * Returns the ids along a shortest reference path between the documents, empty if there is none.
+     */
+    public List<Long> findReferencePath(Long fromId, Long toId, DocumentReferenceGraph.Direction direction) {
+        Objects.requireNonNull(fromId, "Document ID must not be null");
+        Objects.requireNonNull(toId, "Document ID must not be null");
+        Objects.requireNonNull(direction, "Direction must not be null");
+        return documentReferenceGraph.shortestPath(fromId, toId, direction);
+    }
+
+    /**
+     * Returns the ids of all documents reachable from the given document over references, ordered by id.
+     * Empty if more than limit documents are reachable.
+     */
+    public Optional<long[]> findReferenceClosure(Long id, DocumentReferenceGraph.Direction direction, int limit) {
+        Objects.requireNonNull(id, "Document ID must not be null");
+        Objects.requireNonNull(direction, "Direction must not be null");
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Optional.ofNullable(documentReferenceGraph.closure(id, direction, limit));
     }
 
     public Document saveDocument(Document document) {
         Objects.requireNonNull(document, "saved document must not be null");
-        Optional<Author> authorOpt = authorRepository.findById(document.getAuthorId());
-
         boolean isNewDoc = document.getId() == null;
 
-        if (authorOpt.isEmpty()){
+        if (!authorRepository.existsById(document.getAuthorId())){
             throw new IllegalStateException("Author must exist before creating/updating a new document");
         }
+        validateReferences(List.of(document));
 
         Document savedDoc = documentRepository.save(document);
-
-        Author author = authorOpt.get();
-        author.addDocument(savedDoc);
-        authorRepository.save(author);
+        documentCache.invalidate(savedDoc.getId());
+        invertedDocumentIndex.index(List.of(savedDoc));
+        documentReferenceGraph.update(List.of(savedDoc));
 
         ServiceUpdateEvent event = new ServiceUpdateEvent();
         event.setUpdateType(isNewDoc ? ServiceUpdateType.DOCUMENT_CREATED : ServiceUpdateType.DOCUMENT_UPDATED);
         event.setDocumentId(savedDoc.getId());
+        event.setReferenceIds(referenceIdsOf(savedDoc));
 
         logger.info("Created document {}", savedDoc.getId());
 
@@ -64,16 +223,64 @@ public class DocumentService {
         return savedDoc;
     }
 
+    /**
+     * Saves several documents in one transaction. The existence of all authors is checked with a single query.
+     * Since ids come from a pooled sequence, the inserts are sent to the database as jdbc batches.
+     */
+    public List<Document> saveAll(List<Document> documents) {
+        Objects.requireNonNull(documents, "saved documents must not be null");
+        if (documents.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> authorIds = documents.stream()
+                .map(Document::getAuthorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingAuthorIds = authorIds.isEmpty() ? Collections.emptySet() :
+                authorRepository.findExistingIds(authorIds);
+
+        for (Document document : documents) {
+            Objects.requireNonNull(document, "saved document must not be null");
+            if (!existingAuthorIds.contains(document.getAuthorId())) {
+                throw new IllegalStateException("Author must exist before creating/updating a new document");
+            }
+        }
+        validateReferences(documents);
+
+        Set<Document> newDocs = Collections.newSetFromMap(new IdentityHashMap<>());
+        documents.stream().filter(document -> document.getId() == null).forEach(newDocs::add);
+
+        List<Document> savedDocs = documentRepository.saveAll(documents);
+        documentCache.invalidateAll(savedDocs.stream().map(Document::getId).toList());
+        invertedDocumentIndex.index(savedDocs);
+        documentReferenceGraph.update(savedDocs);
+
+        for (Document savedDoc : savedDocs) {
+            ServiceUpdateEvent event = new ServiceUpdateEvent();
+            event.setUpdateType(newDocs.contains(savedDoc) ? ServiceUpdateType.DOCUMENT_CREATED : ServiceUpdateType.DOCUMENT_UPDATED);
+            event.setDocumentId(savedDoc.getId());
+            event.setReferenceIds(referenceIdsOf(savedDoc));
+            publisher.publish(event);
+        }
+
+        logger.info("Saved {} documents", savedDocs.size());
+
+        return savedDocs;
+    }
+
     public void deleteDocument(Long id) {
         Objects.requireNonNull(id, "Document ID must not be null");
 
-        Document doc = documentRepository.findById(id).orElseThrow();
-        Author author = authorRepository.findById(doc.getAuthorId()).orElseThrow();
-
-        author.removeDocument(doc);
-        authorRepository.save(author);
+        if (!documentRepository.existsById(id)) {
+            throw new NoSuchElementException("Document " + id + " does not exist");
+        }
 
         documentRepository.deleteById(id);
+        documentCache.invalidate(id);
+        danglingReferenceCleaner.enqueue(List.of(id));
+        invertedDocumentIndex.remove(List.of(id));
+        documentReferenceGraph.remove(List.of(id));
 
         ServiceUpdateEvent event = new ServiceUpdateEvent();
         event.setUpdateType(ServiceUpdateType.DOCUMENT_DELETED);
@@ -83,6 +290,63 @@ public class DocumentService {
         logger.info("Deleted doc {}", id);
     }
 
+    /**
+     * Deletes several documents in one transaction, with a single delete statement.
+     */
+    public void deleteAll(Collection<Long> ids) {
+        Objects.requireNonNull(ids, "Document IDs must not be null");
+        Set<Long> uniqueIds = new HashSet<>(ids);
+        if (uniqueIds.isEmpty()) {
+            return;
+        }
+
+        if (documentRepository.findExistingIds(uniqueIds).size() != uniqueIds.size()) {
+            throw new NoSuchElementException("Some of the documents to delete do not exist");
+        }
+
+        documentRepository.deleteAllByIdInBatch(uniqueIds);
+        documentCache.invalidateAll(uniqueIds);
+        danglingReferenceCleaner.enqueue(uniqueIds);
+        invertedDocumentIndex.remove(uniqueIds);
+        documentReferenceGraph.remove(uniqueIds);
+
+        for (Long id : uniqueIds) {
+            ServiceUpdateEvent event = new ServiceUpdateEvent();
+            event.setUpdateType(ServiceUpdateType.DOCUMENT_DELETED);
+            event.setDocumentId(id);
+            publisher.publish(event);
+        }
+
+        logger.info("Deleted {} docs", uniqueIds.size());
+    }
+
+    /**
+     * Checks that all documents referenced by the given documents exist, with one query for all of them.
+     * A document may reference itself.
+     */
+    private void validateReferences(Collection<Document> documents) {
+        Set<Long> referenceIds = new HashSet<>();
+        for (Document document : documents) {
+            if (document.getReferenceIds() != null) {
+                document.getReferenceIds().stream()
+                        .filter(referenceId -> referenceId != null && !referenceId.equals(document.getId()))
+                        .forEach(referenceIds::add);
+            }
+        }
+        if (referenceIds.isEmpty()) {
+            return;
+        }
+
+        referenceIds.removeAll(documentRepository.findExistingIds(referenceIds));
+        if (!referenceIds.isEmpty()) {
+            throw new UnknownReferenceException(referenceIds);
+        }
+    }
+
+    private static Set<Long> referenceIdsOf(Document document) {
+        return document.getReferenceIds() == null ? Collections.emptySet() : new HashSet<>(document.getReferenceIds());
+    }
+
     public List<Document> findAllDocumentForAuthor(Author author) {
 
         Objects.requireNonNull(author, "Author must not be null");
@@ -91,4 +355,32 @@ public class DocumentService {
         return documentRepository.findAllByAuthorId(author.getId());
 
     }
+
+    /**
+     * Returns the ids of all documents of the given author, served from the index on document.author_id.
+     */
+    public Set<Long> findDocumentIdsForAuthor(Author author) {
+
+        Objects.requireNonNull(author, "Author must not be null");
+        Objects.requireNonNull(author.getId(), "Author id must not be null");
+
+        return documentRepository.findIdsByAuthorId(author.getId());
+    }
+
+    public List<DocumentSummary> findAllDocumentSummariesForAuthor(Author author) {
+
+        Objects.requireNonNull(author, "Author must not be null");
+        Objects.requireNonNull(author.getId(), "Author id must not be null");
+
+        return documentRepository.findAllSummariesByAuthorId(author.getId());
+    }
+
+    @Value
+    private static class IndexedSearchResult implements DocumentSearchResult {
+        Long id;
+        String title;
+        Long authorId;
+        Float score;
+        String snippet;
+    }
 }
@@ -0,0 +1,372 @@
+package com.documentService.document.service;
+
+import com.documentService.document.model.Document;
+import com.documentService.document.repository.DocumentRepository;
+import com.documentService.document.repository.DocumentText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over document titles and bodies, for deployments whose database has no full
+ * text search, enabled by search.engine=in-memory. For every term the index keeps a postings list of the
+ * documents containing it as sorted primitive arrays. Queries match documents containing all terms and rank
+ * them with BM25, title occurrences count more than body occurrences.
+ * The index is built at startup and updated on local writes once they are committed. Writes of other
+ * instances are not seen, so it is meant for single instance deployments.
+ */
+@Component
+public class InvertedDocumentIndex {
+
+    public static final String IN_MEMORY_ENGINE = "in-memory";
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+            "or", "that", "the", "this", "to", "was", "with");
+    private static final int TITLE_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int SNIPPET_WORDS_BEFORE = 10;
+    private static final int SNIPPET_WORDS = 30;
+
+    private final boolean enabled;
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<Long, String[]> termsByDocument = new HashMap<>();
+    private final Map<Long, Integer> lengthByDocument = new HashMap<>();
+    private long totalLength;
+
+    private static final Logger logger = LoggerFactory.getLogger(InvertedDocumentIndex.class);
+
+    public InvertedDocumentIndex(@Value("${search.engine:postgres}") String engine,
+                                 DocumentRepository documentRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.enabled = IN_MEMORY_ENGINE.equals(engine);
+        this.documentRepository = documentRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Builds the index from all stored documents. Only id, title and body are streamed as unmanaged rows,
+     * so no more than one fetch of documents is held in memory at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            termsByDocument.clear();
+            lengthByDocument.clear();
+            totalLength = 0;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<DocumentText> documents = documentRepository.streamAllTexts()) {
+                    documents.forEach(document ->
+                            addDocument(document.getId(), document.getTitle(), document.getBody()));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("indexed {} documents in {}ms", termsByDocument.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indexes the documents once the current transaction commits, replacing previous versions
+     */
+    public void index(Collection<Document> documents) {
+        if (!enabled) {
+            return;
+        }
+
+        List<Document> copies = documents.stream()
+                .map(document -> new Document(document.getId(), document.getTitle(), document.getBody(), null, null))
+                .toList();
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                copies.forEach(document -> {
+                    removeDocument(document.getId());
+                    addDocument(document.getId(), document.getTitle(), document.getBody());
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes the documents once the current transaction commits
+     */
+    public void remove(Collection<Long> ids) {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> copies = List.copyOf(ids);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                copies.forEach(this::removeDocument);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns the ids and scores of the documents containing all terms of the query, best matches first
+     */
+    public List<Match> search(String query, long offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> postings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings termPostings = postingsByTerm.get(term);
+                if (termPostings == null) {
+                    return Collections.emptyList();
+                }
+                postings.add(termPostings);
+            }
+            // intersect starting with the rarest term, the candidates only shrink from there
+            postings.sort(Comparator.comparingInt(Postings::size));
+
+            long[] candidates = Arrays.copyOf(postings.get(0).documentIds, postings.get(0).size);
+            int candidateCount = candidates.length;
+            for (int i = 1; i < postings.size() && candidateCount > 0; i++) {
+                int kept = 0;
+                for (int j = 0; j < candidateCount; j++) {
+                    if (postings.get(i).indexOf(candidates[j]) >= 0) {
+                        candidates[kept++] = candidates[j];
+                    }
+                }
+                candidateCount = kept;
+            }
+
+            int documentCount = termsByDocument.size();
+            double averageLength = documentCount == 0 ? 1 : (double) totalLength / documentCount;
+            List<Match> matches = new ArrayList<>(candidateCount);
+            for (int j = 0; j < candidateCount; j++) {
+                long id = candidates[j];
+                double length = lengthByDocument.get(id);
+                double score = 0;
+                for (Postings termPostings : postings) {
+                    int frequency = termPostings.frequencies[termPostings.indexOf(id)];
+                    double idf = Math.log(1 + (documentCount - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                    score += idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+                }
+                matches.add(new Match(id, (float) score));
+            }
+
+            matches.sort(Comparator.comparing(Match::score).reversed().thenComparing(Match::id));
+            int from = (int) Math.min(offset, matches.size());
+            return new ArrayList<>(matches.subList(from, Math.min(from + limit, matches.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a fragment of the text around the first match of the query, matching words enclosed in
+     * mark tags. Without a match the start of the text is returned.
+     */
+    public String snippet(String text, String query) {
+        if (text == null) {
+            return null;
+        }
+        Set<String> terms = new HashSet<>(tokenize(query));
+
+        List<int[]> words = new ArrayList<>();
+        int firstMatch = -1;
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            if (firstMatch < 0 && terms.contains(normalize(matcher.group()))) {
+                firstMatch = words.size();
+            }
+            words.add(new int[]{matcher.start(), matcher.end()});
+            if (firstMatch >= 0 && words.size() >= firstMatch + SNIPPET_WORDS) {
+                break;
+            }
+        }
+        if (words.isEmpty()) {
+            return "";
+        }
+
+        int from = Math.max(0, firstMatch - SNIPPET_WORDS_BEFORE);
+        int to = Math.min(words.size(), from + SNIPPET_WORDS);
+        StringBuilder snippet = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            int[] word = words.get(i);
+            if (i > from) {
+                snippet.append(text, words.get(i - 1)[1], word[0]);
+            }
+            String value = text.substring(word[0], word[1]);
+            if (terms.contains(normalize(value))) {
+                snippet.append("<mark>").append(value).append("</mark>");
+            } else {
+                snippet.append(value);
+            }
+        }
+        return snippet.toString();
+    }
+
+    private void addDocument(long id, String title, String body) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : tokenize(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : tokenize(body)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        frequencies.forEach((term, frequency) ->
+                postingsByTerm.computeIfAbsent(term, key -> new Postings()).put(id, frequency));
+        termsByDocument.put(id, frequencies.keySet().toArray(String[]::new));
+        lengthByDocument.put(id, length);
+        totalLength += length;
+    }
+
+    private void removeDocument(long id) {
+        String[] terms = termsByDocument.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(id);
+            if (postings.size == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+        totalLength -= lengthByDocument.remove(id);
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String term = normalize(matcher.group());
+            if (term.length() > 1 && !STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lower cases the word and strips the common english plural endings, so singular and plural match
+     */
+    private static String normalize(String word) {
+        String term = word.toLowerCase(Locale.ROOT);
+        if (term.length() > 4 && term.endsWith("ies")) {
+            return term.substring(0, term.length() - 3) + "y";
+        }
+        if (term.length() > 4 && (term.endsWith("oes") || term.endsWith("ses") || term.endsWith("xes")
+                || term.endsWith("ches") || term.endsWith("shes"))) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public record Match(long id, float score) {
+    }
+
+    /**
+     * Documents containing a term with the frequency of the term, sorted by document id
+     */
+    private static final class Postings {
+
+        private long[] documentIds = new long[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int indexOf(long documentId) {
+            return Arrays.binarySearch(documentIds, 0, size, documentId);
+        }
+
+        void put(long documentId, int frequency) {
+            int index = indexOf(documentId);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == documentIds.length) {
+                documentIds = Arrays.copyOf(documentIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            // ids mostly grow, so new documents are usually appended without moving anything
+            System.arraycopy(documentIds, insertAt, documentIds, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            documentIds[insertAt] = documentId;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        void remove(long documentId) {
+            int index = indexOf(documentId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(documentIds, index + 1, documentIds, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Liquibase SQL Changeset for sequence based id generation
+
+-- Identity columns force Hibernate to insert every row immediately to learn its id,
+-- which disables JDBC batching. Ids are now allocated from pooled sequences instead.
+-- The sequences increment by the Hibernate allocation size and start above the existing ids.
+
+-- Author ids
+ALTER TABLE author ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE author_seq INCREMENT BY 50;
+SELECT setval('author_seq', COALESCE((SELECT MAX(id) FROM author), 0) + 50, false);
+
+-- Document ids
+ALTER TABLE document ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE document_seq INCREMENT BY 50;
+SELECT setval('document_seq', COALESCE((SELECT MAX(id) FROM document), 0) + 50, false);
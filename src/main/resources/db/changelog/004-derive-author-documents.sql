@@ -0,0 +1,7 @@
+-- Liquibase SQL Changeset for the author to document mapping
+
+-- The documents of an author are derived from document.author_id instead of being
+-- duplicated in a JSONB array on the author row, which had to be rewritten on every document write.
+ALTER TABLE author DROP COLUMN document_ids;
+
+CREATE INDEX idx_document_author_id ON document(author_id);
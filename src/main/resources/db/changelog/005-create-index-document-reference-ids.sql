@@ -0,0 +1,4 @@
+-- Liquibase SQL Changeset for Document reference lookups
+
+-- jsonb_path_ops GIN index serving containment queries like reference_ids @> '[42]'
+CREATE INDEX idx_document_reference_ids ON document USING GIN (reference_ids jsonb_path_ops);
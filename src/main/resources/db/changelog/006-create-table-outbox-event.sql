@@ -0,0 +1,13 @@
+-- Liquibase SQL Changeset for the transactional outbox
+
+-- Events are written to this table in the same transaction as the change they describe
+-- and relayed to kafka afterwards, see OutboxRelay.
+CREATE SEQUENCE outbox_event_seq INCREMENT BY 50;
+
+CREATE TABLE outbox_event (
+    id BIGINT PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    event_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Liquibase SQL Changeset for binary event formats
+
+-- Payloads are stored as bytes together with the format they are encoded in
+ALTER TABLE outbox_event ADD COLUMN format VARCHAR(32) NOT NULL DEFAULT 'json';
+ALTER TABLE outbox_event ALTER COLUMN format DROP DEFAULT;
+ALTER TABLE outbox_event ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
@@ -0,0 +1,9 @@
+-- Liquibase SQL Changeset for idempotent event processing
+
+-- Ids of the events already processed, claimed in the transaction processing the event, see ProcessedEventLedger.
+CREATE TABLE processed_event (
+    event_id VARCHAR(64) PRIMARY KEY,
+    processed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_processed_event_processed_at ON processed_event (processed_at);
@@ -0,0 +1,10 @@
+-- Liquibase SQL Changeset for full text search over documents
+
+-- Title and body are indexed as one weighted tsvector, title matches rank higher than body matches.
+-- Only the first 256k characters of the body are indexed, a tsvector is limited to 1MB.
+ALTER TABLE document ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', left(coalesce(body, ''), 262144)), 'B')
+) STORED;
+
+CREATE INDEX idx_document_search_vector ON document USING GIN (search_vector);
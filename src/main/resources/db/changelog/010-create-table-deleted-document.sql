@@ -0,0 +1,9 @@
+-- Liquibase SQL Changeset for the cleanup of dangling references
+
+-- Ids of deleted documents whose references in other documents are not removed yet, see DanglingReferenceCleaner.
+CREATE TABLE deleted_document (
+    document_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_deleted_document_deleted_at ON deleted_document (deleted_at);
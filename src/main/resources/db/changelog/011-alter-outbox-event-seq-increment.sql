@@ -0,0 +1,5 @@
+-- Liquibase SQL Changeset for ordered outbox ids
+
+-- Outbox ids are taken one at a time instead of in blocks of 50, so ids of different instances
+-- follow the order events were stored in, see OutboxRelay.
+ALTER SEQUENCE outbox_event_seq INCREMENT BY 1;
@@ -0,0 +1,10 @@
+-- Liquibase SQL Changeset for outbox events ordered by creation time
+
+-- Outbox ids are allocated in blocks of 50 again, so inserts of many events need few sequence calls
+-- and can be batched. Ids of different instances interleave, the relay orders events by created_at instead.
+ALTER SEQUENCE outbox_event_seq INCREMENT BY 50;
+
+-- Taken from the database clock when the event is inserted, so clocks of different instances do not matter
+ALTER TABLE outbox_event ALTER COLUMN created_at SET DEFAULT clock_timestamp();
+
+CREATE INDEX idx_outbox_event_created_at_id ON outbox_event (created_at, id);
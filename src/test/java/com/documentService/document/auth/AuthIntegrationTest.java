@@ -3,6 +3,7 @@ package com.documentService.document.auth;
 import com.documentService.document.model.Author;
 import com.documentService.document.model.Role;
 import com.documentService.document.repository.AuthorRepository;
+import com.documentService.document.service.AuthorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +37,9 @@ public class AuthIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthorService authorService;
+
     private RestTemplate restTemplate;
 
     @BeforeEach
@@ -145,4 +149,43 @@ public class AuthIntegrationTest {
 
 
     }
+
+    @Test
+    public void testPasswordChangeIsAppliedToCachedUser() {
+        Author author = authorRepository.findByUsername("cacheduser").orElseGet(Author::new);
+        author.setFirstName("CachedFirstName");
+        author.setLastName("CachedLastName");
+        author.setUsername("cacheduser");
+        author.setPassword(passwordEncoder.encode("oldpassword"));
+        author.setRole(Role.ROLE_USER);
+        author = authorService.saveAuthor(author);
+
+        HttpEntity<String> oldEntity = new HttpEntity<>(createHeaders("cacheduser", "oldpassword"));
+        ResponseEntity<String> response = restTemplate.exchange(
+                getBaseUrl() + "/api/v1/documents",
+                HttpMethod.GET,
+                oldEntity,
+                String.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        author.setPassword(passwordEncoder.encode("newpassword"));
+        authorService.saveAuthor(author);
+
+        assertThrows(HttpClientErrorException.Unauthorized.class, () -> restTemplate.exchange(
+                getBaseUrl() + "/api/v1/documents",
+                HttpMethod.GET,
+                oldEntity,
+                String.class
+        ));
+
+        HttpEntity<String> newEntity = new HttpEntity<>(createHeaders("cacheduser", "newpassword"));
+        response = restTemplate.exchange(
+                getBaseUrl() + "/api/v1/documents",
+                HttpMethod.GET,
+                newEntity,
+                String.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
 }
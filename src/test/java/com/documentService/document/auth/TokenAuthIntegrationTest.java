@@ -0,0 +1,133 @@
+package com.documentService.document.auth;
+
+import com.documentService.document.model.Author;
+import com.documentService.document.model.Role;
+import com.documentService.document.repository.AuthorRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.token.enabled=true",
+        "auth.token.secret=dGVzdC1zZWNyZXQtZm9yLXRva2VuLWF1dGgtMzItYnl0ZXMtbG9uZw=="
+})
+public class TokenAuthIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        restTemplate = new RestTemplate();
+
+        if (authorRepository.findByUsername("user").isEmpty()) {
+            Author user = new Author();
+            user.setFirstName("UserFirstName");
+            user.setLastName("UserLastName");
+            user.setUsername("user");
+            user.setPassword(passwordEncoder.encode("userpassword"));
+            user.setRole(Role.ROLE_USER);
+            authorRepository.save(user);
+        }
+    }
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    private String obtainToken() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth("user", "userpassword");
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                getBaseUrl() + "/api/v1/auth/token",
+                HttpMethod.POST,
+                new HttpEntity<>(headers),
+                String.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        JsonNode body = objectMapper.readTree(response.getBody());
+        return body.get("token").textValue();
+    }
+
+    @Test
+    public void testBearerTokenGrantsUserAccess() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(obtainToken());
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                getBaseUrl() + "/api/v1/documents",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void testBearerTokenKeepsRoles() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(obtainToken());
+
+        assertThrows(HttpClientErrorException.Forbidden.class, () -> restTemplate.exchange(
+                getBaseUrl() + "/api/v1/authors",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        ));
+    }
+
+    @Test
+    public void testTamperedTokenIsUnauthorized() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(obtainToken() + "x");
+
+        assertThrows(HttpClientErrorException.Unauthorized.class, () -> restTemplate.exchange(
+                getBaseUrl() + "/api/v1/documents",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        ));
+    }
+
+    @Test
+    public void testTokenCannotBeUsedToGetNewToken() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(obtainToken());
+
+        assertThrows(HttpClientErrorException.Forbidden.class, () -> restTemplate.exchange(
+                getBaseUrl() + "/api/v1/auth/token",
+                HttpMethod.POST,
+                new HttpEntity<>(headers),
+                String.class
+        ));
+    }
+}
@@ -0,0 +1,70 @@
+package com.documentService.document.messaging;
+
+import com.documentService.document.messaging.events.CreateDocumentEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ClaimCheckStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private ClaimCheckStore claimCheckStore;
+
+    @BeforeEach
+    void setUp() {
+        claimCheckStore = new ClaimCheckStore(true, 16, directory.toString(), Duration.ofDays(1));
+    }
+
+    @Test
+    public void testSmallBodyStaysInline() throws Exception {
+        CreateDocumentEvent event = new CreateDocumentEvent("Title", "short body", 1L, Set.of());
+
+        claimCheckStore.checkIn(event);
+
+        assertThat(event.getBody()).isEqualTo("short body");
+        assertThat(event.getBodyRef()).isNull();
+        assertThat(claimCheckStore.checkOut(event)).isEqualTo("short body");
+    }
+
+    @Test
+    public void testLargeBodyIsCheckedInAndOut() throws Exception {
+        String body = "a large body with unicode äöü ".repeat(1000);
+        CreateDocumentEvent event = new CreateDocumentEvent("Title", body, 1L, Set.of());
+
+        claimCheckStore.checkIn(event);
+
+        assertThat(event.getBody()).isNull();
+        assertThat(event.getBodyRef()).isNotNull();
+        assertThat(event.getBodyChecksum()).hasSize(64);
+        assertThat(directory.resolve(event.getBodyRef())).exists();
+        assertThat(claimCheckStore.checkOut(event)).isEqualTo(body);
+    }
+
+    @Test
+    public void testCheckOutFailsOnChecksumMismatch() throws Exception {
+        CreateDocumentEvent event = new CreateDocumentEvent("Title", "b".repeat(100), 1L, Set.of());
+        claimCheckStore.checkIn(event);
+
+        Files.writeString(directory.resolve(event.getBodyRef()), "c".repeat(100));
+
+        assertThatThrownBy(() -> claimCheckStore.checkOut(event)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testCheckOutRejectsInvalidReference() {
+        CreateDocumentEvent event = new CreateDocumentEvent("Title", null, 1L, Set.of(), "../secret", "0");
+
+        assertThatThrownBy(() -> claimCheckStore.checkOut(event)).isInstanceOf(IOException.class);
+    }
+}
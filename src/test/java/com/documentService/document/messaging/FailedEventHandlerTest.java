@@ -0,0 +1,100 @@
+package com.documentService.document.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import static com.documentService.document.messaging.KafkaEventPublisher.DOCUMENT_TOPIC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FailedEventHandlerTest {
+
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private FailedEventHandler failedEventHandler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        meterRegistry = new SimpleMeterRegistry();
+        failedEventHandler = new FailedEventHandler(kafkaTemplate, meterRegistry, 2, 1000, 4, 60000, 1000);
+    }
+
+    @Test
+    public void testTransientFailureIsSentToRetryTopic() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DOCUMENT_TOPIC, 0, 5L, "1", new byte[]{1});
+
+        long before = System.currentTimeMillis();
+        failedEventHandler.handleFailure(record, new IllegalStateException("Author must exist"));
+
+        ProducerRecord<String, byte[]> sent = captureSent();
+        assertThat(sent.topic()).isEqualTo(DOCUMENT_TOPIC + "-retry-0");
+        assertThat(sent.key()).isEqualTo("1");
+        assertThat(header(sent, FailedEventHandler.RETRY_ATTEMPT_HEADER)).isEqualTo("1");
+        assertThat(Long.parseLong(header(sent, FailedEventHandler.RETRY_DUE_HEADER))).isGreaterThanOrEqualTo(before + 1000);
+        assertThat(meterRegistry.counter("kafka.events.retries", "topic", DOCUMENT_TOPIC).count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRetryFromRetryTopicUsesNextTopic() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DOCUMENT_TOPIC + "-retry-0", 0, 5L, "1", new byte[]{1});
+        record.headers().add(FailedEventHandler.RETRY_ATTEMPT_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FailedEventHandler.ORIGINAL_TOPIC_HEADER, DOCUMENT_TOPIC.getBytes(StandardCharsets.UTF_8));
+
+        failedEventHandler.handleFailure(record, new IllegalStateException("Author must exist"));
+
+        ProducerRecord<String, byte[]> sent = captureSent();
+        assertThat(sent.topic()).isEqualTo(DOCUMENT_TOPIC + "-retry-1");
+        assertThat(header(sent, FailedEventHandler.RETRY_ATTEMPT_HEADER)).isEqualTo("2");
+    }
+
+    @Test
+    public void testExhaustedRetriesAreDeadLettered() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DOCUMENT_TOPIC + "-retry-1", 0, 5L, "1", new byte[]{1});
+        record.headers().add(FailedEventHandler.RETRY_ATTEMPT_HEADER, "2".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(FailedEventHandler.ORIGINAL_TOPIC_HEADER, DOCUMENT_TOPIC.getBytes(StandardCharsets.UTF_8));
+
+        failedEventHandler.handleFailure(record, new IllegalStateException("Author must exist"));
+
+        ProducerRecord<String, byte[]> sent = captureSent();
+        assertThat(sent.topic()).isEqualTo(DOCUMENT_TOPIC + "-dlt");
+        assertThat(header(sent, FailedEventHandler.DLT_REASON_HEADER)).isEqualTo("retries-exhausted");
+        assertThat(meterRegistry.counter("kafka.events.dead.lettered",
+                "topic", DOCUMENT_TOPIC, "reason", "retries-exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPermanentFailureIsDeadLettered() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DOCUMENT_TOPIC, 0, 5L, "1", new byte[]{1});
+
+        failedEventHandler.handleFailure(record, new NoSuchElementException("Document 1 does not exist"));
+
+        ProducerRecord<String, byte[]> sent = captureSent();
+        assertThat(sent.topic()).isEqualTo(DOCUMENT_TOPIC + "-dlt");
+        assertThat(header(sent, FailedEventHandler.DLT_REASON_HEADER)).isEqualTo("non-retryable");
+        assertThat(header(sent, FailedEventHandler.DLT_EXCEPTION_HEADER)).isEqualTo(NoSuchElementException.class.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, byte[]> captureSent() {
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
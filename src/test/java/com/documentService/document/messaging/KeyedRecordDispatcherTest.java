@@ -0,0 +1,52 @@
+package com.documentService.document.messaging;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeyedRecordDispatcherTest {
+
+    private final KeyedRecordDispatcher dispatcher = new KeyedRecordDispatcher(true, 4);
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testRecordsWithSameKeyKeepOrder() {
+        List<ConsumerRecord<String, Long>> records = new ArrayList<>();
+        for (long offset = 0; offset < 1000; offset++) {
+            records.add(new ConsumerRecord<>("topic", 0, offset, Long.toString(offset % 10), offset));
+        }
+
+        Map<String, List<Long>> processedByKey = new ConcurrentHashMap<>();
+        dispatcher.dispatch(records, record -> processedByKey
+                .computeIfAbsent(record.key(), key -> new CopyOnWriteArrayList<>())
+                .add(record.value()));
+
+        assertThat(processedByKey).hasSize(10);
+        processedByKey.values().forEach(values -> assertThat(values).hasSize(100).isSorted());
+    }
+
+    @Test
+    public void testDispatchReturnsAfterAllRecordsAreProcessed() {
+        List<ConsumerRecord<String, Long>> records = new ArrayList<>();
+        for (long offset = 0; offset < 100; offset++) {
+            records.add(new ConsumerRecord<>("topic", (int) (offset % 3), offset, offset % 2 == 0 ? null : "key" + offset, offset));
+        }
+
+        List<Long> processed = new CopyOnWriteArrayList<>();
+        dispatcher.dispatch(records, record -> processed.add(record.value()));
+
+        assertThat(processed).hasSize(100);
+    }
+}
@@ -0,0 +1,83 @@
+package com.documentService.document.messaging;
+
+import com.documentService.document.messaging.codec.EventCodec;
+import com.documentService.document.messaging.events.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class MessageDeserializerTest {
+
+    @Autowired
+    private MessageDeserializer messageDeserializer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("smileEventCodec")
+    private EventCodec smileEventCodec;
+
+    @Test
+    public void testEventTypeIsWrittenFirst() throws Exception {
+        String message = objectMapper.writeValueAsString(new DeleteDocumentEvent(5L));
+
+        assertThat(message).startsWith("{\"eventType\":\"DELETE_DOCUMENT_EVENT\"");
+    }
+
+    @Test
+    public void testParseSerializedEvents() throws Exception {
+        CreateDocumentEvent createDocument = new CreateDocumentEvent("Title", "Body", 1L, Set.of(2L, 3L));
+        CreateAuthorEvent createAuthor = new CreateAuthorEvent("John", "Doe", "johndoe", "password");
+        DeleteAuthorEvent deleteAuthor = new DeleteAuthorEvent(4L);
+        ServiceUpdateEvent serviceUpdate = new ServiceUpdateEvent(1L, 2L, ServiceUpdateType.DOCUMENT_UPDATED);
+
+        assertThat(messageDeserializer.parseEvent(objectMapper.writeValueAsString(createDocument))).isEqualTo(createDocument);
+        assertThat(messageDeserializer.parseEvent(objectMapper.writeValueAsString(createAuthor))).isEqualTo(createAuthor);
+        assertThat(messageDeserializer.parseEvent(objectMapper.writeValueAsString(deleteAuthor))).isEqualTo(deleteAuthor);
+        assertThat(messageDeserializer.parseEvent(objectMapper.writeValueAsString(serviceUpdate))).isEqualTo(serviceUpdate);
+    }
+
+    @Test
+    public void testParseEventTypeNotFirst() {
+        String message = "{\"documentId\":7,\"eventType\":\"DELETE_DOCUMENT_EVENT\"}";
+
+        assertThat(messageDeserializer.parseEvent(message)).isEqualTo(new DeleteDocumentEvent(7L));
+    }
+
+    @Test
+    public void testParseInvalidMessage() {
+        assertThat(messageDeserializer.parseEvent("not json")).isNull();
+        assertThat(messageDeserializer.parseEvent("{\"documentId\":7}")).isNull();
+        assertThat(messageDeserializer.parseEvent("{\"eventType\":\"UNKNOWN\"}")).isNull();
+    }
+
+    @Test
+    public void testParseRecordByFormatHeader() throws Exception {
+        CreateDocumentEvent event = new CreateDocumentEvent("Title", "Body", 1L, Set.of(2L));
+
+        ConsumerRecord<String, byte[]> smileRecord = new ConsumerRecord<>("topic", 0, 0L, "1", smileEventCodec.encode(event));
+        smileRecord.headers().add(EventCodec.FORMAT_HEADER, smileEventCodec.getFormat().getBytes(StandardCharsets.UTF_8));
+        ConsumerRecord<String, byte[]> jsonRecord = new ConsumerRecord<>("topic", 0, 1L, "1", objectMapper.writeValueAsBytes(event));
+
+        assertThat(messageDeserializer.parseEvent(smileRecord)).isEqualTo(event);
+        assertThat(messageDeserializer.parseEvent(jsonRecord)).isEqualTo(event);
+    }
+
+    @Test
+    public void testParseRecordWithUnknownFormat() {
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("topic", 0, 0L, "1", new byte[]{1, 2, 3});
+        record.headers().add(EventCodec.FORMAT_HEADER, "avro".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(messageDeserializer.parseEvent(record)).isNull();
+    }
+}
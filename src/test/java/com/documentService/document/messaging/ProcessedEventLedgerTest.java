@@ -0,0 +1,47 @@
+package com.documentService.document.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class ProcessedEventLedgerTest {
+
+    @Autowired
+    private ProcessedEventLedger processedEventLedger;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void testEventIsClaimedOnce() {
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+
+        Set<String> claimed = transactionTemplate.execute(status -> processedEventLedger.claim(List.of(first, second, first)));
+        Set<String> claimedAgain = transactionTemplate.execute(status -> processedEventLedger.claim(List.of(first, second)));
+
+        assertThat(claimed).containsExactlyInAnyOrder(first, second);
+        assertThat(claimedAgain).isEmpty();
+    }
+
+    @Test
+    public void testRolledBackClaimIsReleased() {
+        String eventId = UUID.randomUUID().toString();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(processedEventLedger.claim(eventId)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        Boolean claimed = transactionTemplate.execute(status -> processedEventLedger.claim(eventId));
+        assertThat(claimed).isTrue();
+    }
+}
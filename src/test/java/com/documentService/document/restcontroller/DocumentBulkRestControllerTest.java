@@ -0,0 +1,147 @@
+package com.documentService.document.restcontroller;
+
+import com.documentService.document.model.Author;
+import com.documentService.document.model.Document;
+import com.documentService.document.model.Role;
+import com.documentService.document.repository.AuthorRepository;
+import com.documentService.document.repository.DocumentRepository;
+import com.documentService.document.restcontroller.dto.DocumentBulkItemDTO;
+import com.documentService.document.restcontroller.dto.DocumentDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DocumentBulkRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Author author;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.execute("TRUNCATE TABLE author CASCADE");
+
+        Author newAuthor = new Author();
+        newAuthor.setFirstName("firstname");
+        newAuthor.setLastName("lastname");
+        newAuthor.setUsername("username");
+        newAuthor.setPassword("password");
+        newAuthor.setRole(Role.ROLE_USER);
+        author = authorRepository.save(newAuthor);
+    }
+
+    @Test
+    public void shouldApplyBulkOperationsAndReportEachResult() throws Exception {
+        Document toUpdate = documentRepository.save(
+                new Document(null, "Old Title", "Old Body", author.getId(), Collections.emptySet()));
+        Document toDelete = documentRepository.save(
+                new Document(null, "Title", "Body", author.getId(), Collections.emptySet()));
+
+        List<DocumentBulkItemDTO> items = List.of(
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.CREATE, null,
+                        new DocumentDTO(null, "New Title", "New Body", author.getId(), Collections.emptySet())),
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.UPDATE, toUpdate.getId(),
+                        new DocumentDTO(null, "Updated Title", "Updated Body", author.getId(), Collections.emptySet())),
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.DELETE, toDelete.getId(), null),
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.CREATE, null,
+                        new DocumentDTO(null, "Title", "Body", author.getId() + 1000, Collections.emptySet())),
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.DELETE, toDelete.getId() + 1000, null),
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.CREATE, null,
+                        new DocumentDTO(null, null, "Body", author.getId(), Collections.emptySet()))
+        );
+
+        mockMvc.perform(post("/api/v1/documents/_bulk")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[1].status").value(200))
+                .andExpect(jsonPath("$[2].status").value(200))
+                .andExpect(jsonPath("$[3].status").value(400))
+                .andExpect(jsonPath("$[3].error").value("Author not found"))
+                .andExpect(jsonPath("$[4].status").value(404))
+                .andExpect(jsonPath("$[5].status").value(400))
+                .andExpect(jsonPath("$[5].error").value("title: Title cannot be null"));
+
+        assertThat(documentRepository.findById(toUpdate.getId()).orElseThrow().getTitle()).isEqualTo("Updated Title");
+        assertThat(documentRepository.findById(toDelete.getId())).isEmpty();
+        assertThat(documentRepository.findAllByAuthorId(author.getId())).hasSize(2);
+    }
+
+    @Test
+    public void shouldRejectReferencesToDocumentsDeletedByTheSameRequest() throws Exception {
+        Document toDelete = documentRepository.save(
+                new Document(null, "Title", "Body", author.getId(), Collections.emptySet()));
+
+        List<DocumentBulkItemDTO> items = List.of(
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.DELETE, toDelete.getId(), null),
+                new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.CREATE, null,
+                        new DocumentDTO(null, "New Title", "New Body", author.getId(), Set.of(toDelete.getId())))
+        );
+
+        mockMvc.perform(post("/api/v1/documents/_bulk")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("Referenced document is deleted by this request"));
+
+        assertThat(documentRepository.findAllByAuthorId(author.getId())).isEmpty();
+    }
+
+    @Test
+    public void shouldAcceptNdjsonBulkRequest() throws Exception {
+        String body = objectMapper.writeValueAsString(new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.CREATE, null,
+                new DocumentDTO(null, "Title 1", "Body 1", author.getId(), Collections.emptySet())))
+                + "\n"
+                + objectMapper.writeValueAsString(new DocumentBulkItemDTO(DocumentBulkItemDTO.Action.CREATE, null,
+                new DocumentDTO(null, "Title 2", "Body 2", author.getId(), Collections.emptySet())))
+                + "\n";
+
+        mockMvc.perform(post("/api/v1/documents/_bulk")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(201));
+
+        assertThat(documentRepository.findAllByAuthorId(author.getId())).hasSize(2);
+    }
+}
@@ -6,6 +6,7 @@ import com.documentService.document.model.Role;
 import com.documentService.document.repository.AuthorRepository;
 import com.documentService.document.repository.DocumentRepository;
 import com.documentService.document.restcontroller.dto.DocumentDTO;
+import com.documentService.document.service.DocumentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,13 +15,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -39,6 +45,9 @@ public class DocumentRestControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DocumentService documentService;
+
     @BeforeEach
     public void setup() {
         documentRepository.deleteAll();
@@ -125,6 +134,276 @@ public class DocumentRestControllerTest {
                 .andExpect(jsonPath("$[1].title").value("Title 2"));
     }
 
+    @Test
+    public void shouldGetDocumentsPageByPage() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        Document doc1 = new Document(null, "Title 1", "Body 1", savedAuthor.getId(), Collections.emptySet());
+        Document doc2 = new Document(null, "Title 2", "Body 2", savedAuthor.getId(), Collections.emptySet());
+        Document doc3 = new Document(null, "Title 3", "Body 3", savedAuthor.getId(), Collections.emptySet());
+        documentRepository.saveAll(List.of(doc1, doc2, doc3));
+
+        String firstPage = mockMvc.perform(get("/api/v1/documents/page")
+                        .param("limit", "2")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].title").value("Title 1"))
+                .andExpect(jsonPath("$.items[1].title").value("Title 2"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").textValue();
+
+        mockMvc.perform(get("/api/v1/documents/page")
+                        .param("limit", "2")
+                        .param("after", nextCursor)
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Title 3"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void shouldReturnBadRequestForInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/documents/page")
+                        .param("after", "not-a-cursor")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldGetDocumentSummariesWithoutBody() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        Document document = new Document(null, "Title 1", "Body 1", savedAuthor.getId(), Collections.emptySet());
+        documentRepository.save(document);
+
+        mockMvc.perform(get("/api/v1/documents")
+                        .param("fields", "summary")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Title 1"))
+                .andExpect(jsonPath("$[0].authorId").value(savedAuthor.getId()))
+                .andExpect(jsonPath("$[0].bodyLength").value(6))
+                .andExpect(jsonPath("$[0].body").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/documents/page")
+                        .param("fields", "summary")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Title 1"))
+                .andExpect(jsonPath("$.items[0].body").doesNotExist());
+    }
+
+    @Test
+    public void shouldGetDocumentsReferencingADocument() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        Document referenced = documentRepository.save(
+                new Document(null, "Referenced", "Body", savedAuthor.getId(), Collections.emptySet()));
+        Document citing = new Document(null, "Citing", "Body", savedAuthor.getId(), Set.of(referenced.getId()));
+        Document unrelated = new Document(null, "Unrelated", "Body", savedAuthor.getId(), Collections.emptySet());
+        documentRepository.saveAll(List.of(citing, unrelated));
+
+        mockMvc.perform(get("/api/v1/documents/" + referenced.getId() + "/referenced-by")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Citing"));
+
+        mockMvc.perform(get("/api/v1/documents/999/referenced-by")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void shouldExportDocumentsAsNdjson() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        Document doc1 = new Document(null, "Title 1", "Body 1", savedAuthor.getId(), Collections.emptySet());
+        Document doc2 = new Document(null, "Title 2", "Body 2", savedAuthor.getId(), Collections.emptySet());
+        documentRepository.saveAll(List.of(doc1, doc2));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/documents/export")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("title").textValue()).isEqualTo("Title 1");
+        assertThat(objectMapper.readTree(lines[1]).get("title").textValue()).isEqualTo("Title 2");
+    }
+
+    @Test
+    public void shouldRejectUnknownReferences() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        DocumentDTO documentDTO = new DocumentDTO(null, "Test Title", "Test Body",
+                savedAuthor.getId(), Set.of(-1L));
+
+        mockMvc.perform(post("/api/v1/documents")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(documentDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.referenceIds").isNotEmpty());
+    }
+
+    @Test
+    public void shouldTraverseReferences() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        Document first = documentService.saveDocument(
+                new Document(null, "First", "Body", savedAuthor.getId(), Collections.emptySet()));
+        Document second = documentService.saveDocument(
+                new Document(null, "Second", "Body", savedAuthor.getId(), Set.of(first.getId())));
+        Document third = documentService.saveDocument(
+                new Document(null, "Third", "Body", savedAuthor.getId(), Set.of(second.getId())));
+
+        mockMvc.perform(get("/api/v1/documents/" + third.getId() + "/references/neighbours")
+                        .param("depth", "2")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(second.getId()))
+                .andExpect(jsonPath("$[0].distance").value(1))
+                .andExpect(jsonPath("$[1].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].distance").value(2));
+
+        mockMvc.perform(get("/api/v1/documents/" + first.getId() + "/references/path/" + third.getId())
+                        .param("direction", "incoming")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0]").value(first.getId()))
+                .andExpect(jsonPath("$[2]").value(third.getId()));
+
+        documentService.deleteDocument(second.getId());
+
+        mockMvc.perform(get("/api/v1/documents/" + third.getId() + "/references/closure")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/v1/documents/" + third.getId() + "/references/neighbours")
+                        .param("direction", "sideways")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldSearchDocumentsByRelevance() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        Document inBody = new Document(null, "Gardening", "Notes about growing tomatoes in a greenhouse",
+                savedAuthor.getId(), Collections.emptySet());
+        Document inTitle = new Document(null, "Tomatoes", "Everything about tomatoes and their varieties",
+                savedAuthor.getId(), Collections.emptySet());
+        Document unrelated = new Document(null, "Cooking", "A recipe for bread",
+                savedAuthor.getId(), Collections.emptySet());
+        documentRepository.saveAll(List.of(inBody, inTitle, unrelated));
+
+        String firstPage = mockMvc.perform(get("/api/v1/documents/search")
+                        .param("q", "tomato")
+                        .param("limit", "1")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Tomatoes"))
+                .andExpect(jsonPath("$.items[0].snippet").value(org.hamcrest.Matchers.containsString("<mark>tomatoes</mark>")))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String nextCursor = objectMapper.readTree(firstPage).get("nextCursor").textValue();
+
+        mockMvc.perform(get("/api/v1/documents/search")
+                        .param("q", "tomato")
+                        .param("limit", "1")
+                        .param("after", nextCursor)
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Gardening"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/documents/search")
+                        .param("q", " ")
+                        .with(user("testuser").password("testuserpass").roles("USER"))
+                )
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void shouldUpdateDocument() throws Exception {
         Author author = new Author();
@@ -9,6 +9,8 @@ import com.documentService.document.restcontroller.dto.AuthorWriteDTO;
 import com.documentService.document.restcontroller.dto.DocumentDTO;
 import com.documentService.document.service.DocumentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,9 +20,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
 
+import static com.documentService.document.messaging.KafkaEventPublisher.AUTHOR_TOPIC;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -49,6 +53,9 @@ public class EventTriggerRestControllerTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
 
     @BeforeEach
     public void setUp() {
@@ -100,6 +107,35 @@ public class EventTriggerRestControllerTest {
 
     }
 
+    @Test
+    public void testDeleteAndRecreateAuthorKeepOrder() throws Exception {
+        Author author = new Author();
+        author.setId(null);
+        author.setFirstName("firstname");
+        author.setLastName("lastname");
+        author.setUsername("username");
+        author.setPassword("password");
+        author.setRole(Role.ROLE_USER);
+        Author savedAuthor = authorRepository.save(author);
+
+        mockMvc.perform(delete("/api/v1/event-trigger/delete-author/{authorId}", savedAuthor.getId())
+                        .with(user("testadmin").password("testadminpass").roles("ADMIN"))
+                )
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/event-trigger/create-author")
+                        .with(user("testadmin").password("testadminpass").roles("ADMIN"))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(new AuthorWriteDTO("New", "Author", "username", "password123"))))
+                .andExpect(status().isOk());
+
+        Awaitility
+                .await()
+                .atMost(3, TimeUnit.SECONDS)
+                .until(() -> authorRepository.findByUsername("username")
+                        .filter(recreated -> !recreated.getId().equals(savedAuthor.getId()))
+                        .isPresent());
+    }
+
     @Test
     public void testDeleteAuthor() throws Exception {
         Author author = new Author();
@@ -148,4 +184,24 @@ public class EventTriggerRestControllerTest {
                 .until(() -> documentRepository.findAll().isEmpty());
 
     }
+
+    @Test
+    public void testPublishIsMeasured() throws Exception {
+        AuthorWriteDTO dto = new AuthorWriteDTO("Jane", "Doe", "janedoe", "password123");
+
+        mockMvc.perform(post("/api/v1/event-trigger/create-author")
+                        .with(user("testadmin").password("testadminpass").roles("ADMIN"))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        Awaitility
+                .await()
+                .atMost(3, TimeUnit.SECONDS)
+                .until(() -> {
+                    Collection<Timer> timers = meterRegistry.find("kafka.publish.latency")
+                            .tag("topic", AUTHOR_TOPIC).tag("outcome", "success").timers();
+                    return timers.stream().mapToLong(Timer::count).sum() > 0;
+                });
+    }
 }
@@ -0,0 +1,84 @@
+package com.documentService.document.service;
+
+import com.documentService.document.model.Document;
+import com.documentService.document.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.documentService.document.service.DocumentReferenceGraph.Direction.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class DocumentReferenceGraphTest {
+
+    private final DocumentReferenceGraph graph = new DocumentReferenceGraph(mock(DocumentRepository.class),
+            mock(TransactionTemplate.class));
+
+    @BeforeEach
+    public void setup() {
+        // 1 -> 2 -> 3 -> 4, 1 -> 3, 5 -> 1, 2 -> 99 which does not exist
+        graph.update(List.of(
+                document(1L, Set.of(2L, 3L)),
+                document(2L, Set.of(3L, 99L)),
+                document(3L, Set.of(4L)),
+                document(4L, Set.of()),
+                document(5L, Set.of(1L))));
+    }
+
+    @Test
+    public void testNeighbours() {
+        assertThat(graph.neighbours(1L, 1, OUTGOING, 100)).containsExactly(
+                new DocumentReferenceGraph.Neighbour(2L, 1), new DocumentReferenceGraph.Neighbour(3L, 1));
+        assertThat(graph.neighbours(1L, 2, OUTGOING, 100)).containsExactly(
+                new DocumentReferenceGraph.Neighbour(2L, 1), new DocumentReferenceGraph.Neighbour(3L, 1),
+                new DocumentReferenceGraph.Neighbour(4L, 2));
+        assertThat(graph.neighbours(3L, 1, INCOMING, 100)).containsExactly(
+                new DocumentReferenceGraph.Neighbour(1L, 1), new DocumentReferenceGraph.Neighbour(2L, 1));
+    }
+
+    @Test
+    public void testShortestPath() {
+        assertThat(graph.shortestPath(5L, 4L, OUTGOING)).containsExactly(5L, 1L, 3L, 4L);
+        assertThat(graph.shortestPath(4L, 5L, OUTGOING)).isEmpty();
+        assertThat(graph.shortestPath(4L, 5L, INCOMING)).containsExactly(4L, 3L, 1L, 5L);
+        assertThat(graph.shortestPath(2L, 99L, OUTGOING)).isEmpty();
+    }
+
+    @Test
+    public void testClosure() {
+        assertThat(graph.closure(1L, OUTGOING, 100)).containsExactly(2L, 3L, 4L);
+        assertThat(graph.closure(4L, INCOMING, 100)).containsExactly(1L, 2L, 3L, 5L);
+        assertThat(graph.closure(4L, BOTH, 100)).containsExactly(1L, 2L, 3L, 5L);
+    }
+
+    @Test
+    public void testLimits() {
+        assertThat(graph.neighbours(5L, 3, OUTGOING, 2)).containsExactly(
+                new DocumentReferenceGraph.Neighbour(1L, 1), new DocumentReferenceGraph.Neighbour(2L, 2));
+        assertThat(graph.closure(1L, OUTGOING, 3)).containsExactly(2L, 3L, 4L);
+        assertThat(graph.closure(1L, OUTGOING, 2)).isNull();
+    }
+
+    @Test
+    public void testUpdatesAndDeletesAreApplied() {
+        graph.update(List.of(document(1L, Set.of(4L))));
+        assertThat(graph.closure(1L, OUTGOING, 100)).containsExactly(4L);
+        assertThat(graph.neighbours(2L, 1, INCOMING, 100)).isEmpty();
+
+        graph.remove(List.of(3L));
+        assertThat(graph.closure(2L, OUTGOING, 100)).isEmpty();
+        assertThat(graph.contains(3L)).isFalse();
+
+        // the reference of 2 to 3 is kept and becomes an edge again once 3 exists
+        graph.update(List.of(document(3L, Set.of())));
+        assertThat(graph.closure(2L, OUTGOING, 100)).containsExactly(3L);
+    }
+
+    private static Document document(Long id, Set<Long> referenceIds) {
+        return new Document(id, "Title " + id, "Body", 1L, referenceIds);
+    }
+}
@@ -1,10 +1,12 @@
 package com.documentService.document.service;
 
+import com.documentService.document.exception.UnknownReferenceException;
 import com.documentService.document.model.Author;
 import com.documentService.document.model.Document;
 import com.documentService.document.model.Role;
 import com.documentService.document.repository.AuthorRepository;
 import com.documentService.document.repository.DocumentRepository;
+import com.documentService.document.repository.DocumentSummary;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,9 @@ public class DocumentServiceTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private DanglingReferenceCleaner danglingReferenceCleaner;
+
     private Author author;
 
 
@@ -101,6 +106,26 @@ public class DocumentServiceTest {
         assertThat(foundDocument.get()).isEqualTo(document);
     }
 
+    @Test
+    public void shouldNotServeStaleDocumentFromCacheAfterUpdate() {
+        //GIVEN
+        Document saved = documentService.saveDocument(
+                new Document(null, "testTitle", "testBody", author.getId(), new HashSet<>())
+        );
+        Document cached = documentService.findDocumentById(saved.getId()).orElseThrow();
+        cached.setTitle("modified without saving");
+
+        //WHEN
+        Document unchanged = documentService.findDocumentById(saved.getId()).orElseThrow();
+        assertThat(unchanged.getTitle()).isEqualTo("testTitle");
+        unchanged.setTitle("updatedTitle");
+        documentService.saveDocument(unchanged);
+
+        //THEN
+        assertThat(documentService.findDocumentById(saved.getId()).orElseThrow().getTitle())
+                .isEqualTo("updatedTitle");
+    }
+
     @Test
     public void shouldBeAbleToSave() {
         //GIVEN
@@ -115,6 +140,51 @@ public class DocumentServiceTest {
         assertThat(savedDocument).isEqualTo(newDocument);
     }
 
+    @Test
+    public void shouldBeAbleToSaveAll() {
+        //GIVEN
+        List<Document> newDocuments = List.of(
+                new Document(null, "Title 1", "Body 1", author.getId(), new HashSet<>()),
+                new Document(null, "Title 2", "Body 2", author.getId(), new HashSet<>())
+        );
+
+        //WHEN
+        List<Document> savedDocuments = documentService.saveAll(newDocuments);
+
+        //THEN
+        assertThat(savedDocuments).hasSize(2);
+        assertThat(savedDocuments).allMatch(document -> document.getId() != null);
+        assertThat(documentService.findDocumentIdsForAuthor(author))
+                .containsExactlyInAnyOrder(savedDocuments.get(0).getId(), savedDocuments.get(1).getId());
+    }
+
+    @Test
+    public void saveAllShouldFailWhenAnAuthorDoesNotExist() {
+        List<Document> newDocuments = List.of(
+                new Document(null, "Title 1", "Body 1", author.getId(), new HashSet<>()),
+                new Document(null, "Title 2", "Body 2", author.getId() + 1000, new HashSet<>())
+        );
+
+        assertThrows(IllegalStateException.class, () -> documentService.saveAll(newDocuments));
+        assertThat(documentRepository.findAllByAuthorId(author.getId())).isEmpty();
+    }
+
+    @Test
+    public void shouldBeAbleToDeleteAll() {
+        //GIVEN
+        List<Document> savedDocuments = documentService.saveAll(List.of(
+                new Document(null, "Title 1", "Body 1", author.getId(), new HashSet<>()),
+                new Document(null, "Title 2", "Body 2", author.getId(), new HashSet<>())
+        ));
+
+        //WHEN
+        documentService.deleteAll(savedDocuments.stream().map(Document::getId).toList());
+
+        //THEN
+        assertThat(documentRepository.findAllByAuthorId(author.getId())).isEmpty();
+        assertThat(documentService.findDocumentIdsForAuthor(author)).isEmpty();
+    }
+
     @Test
     public void shouldBeAbleToDelete() {
         //GIVEN
@@ -163,7 +233,34 @@ public class DocumentServiceTest {
     }
 
     @Test
-    public void shouldUpdateDocumentIdListInAuthorOnNewDocumentSave(){
+    public void shouldBeAbleToFindAllDocumentSummariesForGivenAuthor() {
+        //GIVEN
+        Document document = documentService.saveDocument(
+                new Document(null, "testTitle", "testBody", author.getId(), new HashSet<>())
+        );
+
+        //WHEN
+        List<DocumentSummary> summaries = documentService.findAllDocumentSummariesForAuthor(author);
+
+        //THEN
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getId()).isEqualTo(document.getId());
+        assertThat(summaries.get(0).getTitle()).isEqualTo("testTitle");
+        assertThat(summaries.get(0).getBodyLength()).isEqualTo("testBody".length());
+    }
+
+    @Test
+    public void summaryBodyLengthShouldBeAByteCount() {
+        // 4 characters, 8 bytes in UTF-8
+        documentService.saveDocument(new Document(null, "testTitle", "\u00e4\u00f6\u00fc\u00df", author.getId(), new HashSet<>()));
+
+        List<DocumentSummary> summaries = documentService.findAllDocumentSummariesForAuthor(author);
+
+        assertThat(summaries.get(0).getBodyLength()).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldIncludeDocumentIdInAuthorDocumentsOnNewDocumentSave(){
         //GIVEN
         Document newDocument = new Document(null, "Another Title", "Another Body",  author.getId(), new HashSet<>());
 
@@ -171,13 +268,12 @@ public class DocumentServiceTest {
         Document savedDocument = documentService.saveDocument(newDocument);
 
         //THEN
-        Author authorInDb = authorRepository.findById(author.getId()).orElseThrow();
-        assertThat(authorInDb.getDocumentIds())
+        assertThat(documentService.findDocumentIdsForAuthor(author))
                 .contains(savedDocument.getId());
     }
 
     @Test
-    public void shouldUpdateDocumentIdListInAuthorOnDocumentDelete(){
+    public void shouldRemoveDocumentIdFromAuthorDocumentsOnDocumentDelete(){
         //GIVEN
         Document newDocument = new Document(null, "Another Title", "Another Body",  author.getId(), new HashSet<>());
         Document savedDocument = documentService.saveDocument(newDocument);
@@ -186,8 +282,32 @@ public class DocumentServiceTest {
         documentService.deleteDocument(savedDocument.getId());
 
         //THEN
-        Author authorInDb = authorRepository.findById(author.getId()).orElseThrow();
-        assertThat(authorInDb.getDocumentIds()).isEmpty();
+        assertThat(documentService.findDocumentIdsForAuthor(author)).isEmpty();
+    }
+
+    @Test
+    public void saveShouldFailWhenAReferencedDocumentDoesNotExist() {
+        Document referenced = documentService.saveDocument(new Document(null, "title", "body", author.getId(), null));
+        Document document = new Document(null, "title", "body", author.getId(), Set.of(referenced.getId(), -1L));
+
+        UnknownReferenceException exception = assertThrows(UnknownReferenceException.class,
+                () -> documentService.saveDocument(document));
+        assertEquals(Set.of(-1L), exception.getUnknownIds());
+        assertThrows(UnknownReferenceException.class, () -> documentService.saveAll(List.of(document)));
+    }
+
+    @Test
+    public void shouldRemoveReferencesToDeletedDocuments() {
+        Document deleted = documentService.saveDocument(new Document(null, "title", "body", author.getId(), null));
+        Document kept = documentService.saveDocument(new Document(null, "title", "body", author.getId(), null));
+        Document citing = documentService.saveDocument(new Document(null, "title", "body", author.getId(),
+                Set.of(deleted.getId(), kept.getId())));
+
+        documentService.deleteDocument(deleted.getId());
+        danglingReferenceCleaner.pruneDanglingReferences();
+
+        assertThat(documentRepository.findById(citing.getId()).orElseThrow().getReferenceIds())
+                .containsExactly(kept.getId());
     }
 
     @Test
@@ -0,0 +1,51 @@
+package com.documentService.document.service;
+
+import com.documentService.document.model.Document;
+import com.documentService.document.repository.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InvertedDocumentIndexTest {
+
+    private final InvertedDocumentIndex index = new InvertedDocumentIndex(InvertedDocumentIndex.IN_MEMORY_ENGINE,
+            mock(DocumentRepository.class), mock(TransactionTemplate.class));
+
+    @Test
+    public void testSearchRanksTitleMatchesFirst() {
+        index.index(List.of(
+                new Document(1L, "Gardening", "Growing tomatoes and potatoes in small gardens", 1L, null),
+                new Document(2L, "Tomatoes", "A tomato needs sun", 1L, null),
+                new Document(3L, "Cooking", "Pasta with garlic", 1L, null)));
+
+        List<InvertedDocumentIndex.Match> matches = index.search("Tomato", 0, 10);
+
+        assertThat(matches).extracting(InvertedDocumentIndex.Match::id).containsExactly(2L, 1L);
+        assertThat(index.search("tomatoes garden", 0, 10)).extracting(InvertedDocumentIndex.Match::id).containsExactly(1L);
+        assertThat(index.search("tomato", 1, 10)).extracting(InvertedDocumentIndex.Match::id).containsExactly(1L);
+        assertThat(index.search("the", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testUpdatesAndDeletesAreApplied() {
+        index.index(List.of(new Document(1L, "Tomatoes", "red", 1L, null)));
+        index.index(List.of(new Document(1L, "Potatoes", "brown", 1L, null)));
+
+        assertThat(index.search("tomato", 0, 10)).isEmpty();
+        assertThat(index.search("potato brown", 0, 10)).extracting(InvertedDocumentIndex.Match::id).containsExactly(1L);
+
+        index.remove(List.of(1L));
+
+        assertThat(index.search("potato", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void testSnippetMarksMatches() {
+        assertThat(index.snippet("Growing Tomatoes, in pots.", "tomato"))
+                .isEqualTo("Growing <mark>Tomatoes</mark>, in pots");
+    }
+}